@@ -0,0 +1,95 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.GraphGenerator.Family;
+import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.GraphSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the path that loads a graph when a file is opened: the streaming DOT reader, the
+ * snapshot reader, and the whole calculator with and without a snapshot next to the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+  // JMH sets the parameters from generated code in another package, so they must be public
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Param({"RANDOM", "CLIQUES"})
+  public Family family;
+
+  @Param({"8"})
+  public int degree;
+
+  // Each file is opened by its absolute path, which the calculator resolves to itself
+  private Path dotFile;
+  private Path snapshotFile;
+
+  @Setup
+  public void setUp() throws IOException {
+    final Path directory = Files.createTempDirectory("graph-benchmark");
+
+    final GraphGenerator generator = new GraphGenerator(family, size, degree, 281);
+
+    dotFile = directory.resolve("graph.txt");
+    generator.writeDot(dotFile);
+
+    // A copy of the file with a snapshot saved next to it
+    snapshotFile = directory.resolve("snapshot.txt");
+    generator.writeDot(snapshotFile);
+    GraphSnapshot.write(
+        DotReader.read(snapshotFile),
+        snapshotFile,
+        Files.size(snapshotFile),
+        Files.getLastModifiedTime(snapshotFile));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(GraphSnapshot.pathOf(snapshotFile));
+    Files.deleteIfExists(snapshotFile);
+    Files.deleteIfExists(dotFile);
+    Files.deleteIfExists(dotFile.getParent());
+  }
+
+  @Benchmark
+  public Graph<String> readDot() throws IOException {
+    return DotReader.read(dotFile);
+  }
+
+  @Benchmark
+  public Graph<String> readSnapshot() throws IOException {
+    return GraphSnapshot.read(snapshotFile);
+  }
+
+  @Benchmark
+  public GraphCalculator openFile() throws IOException {
+    return new GraphCalculator(dotFile.toString());
+  }
+
+  @Benchmark
+  public GraphCalculator openFileWithSnapshot() throws IOException {
+    return new GraphCalculator(snapshotFile.toString());
+  }
+}
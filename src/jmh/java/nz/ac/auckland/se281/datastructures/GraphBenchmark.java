@@ -0,0 +1,177 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.GraphGenerator;
+import nz.ac.auckland.se281.GraphGenerator.Family;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of every public method of {@link Graph}, over generated graphs of several sizes and
+ * families. Each property check forgets the cached result first, so the check itself is measured
+ * rather than the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+  // JMH sets the parameters from generated code in another package, so they must be public
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Param({"RANDOM", "POWER_LAW", "CHAIN", "DAG", "CLIQUES", "NEAR_TRANSITIVE"})
+  public Family family;
+
+  // The edges from each vertex, or the size of each group of the clique families
+  @Param({"8"})
+  public int degree;
+
+  private Graph<String> graph;
+
+  @Setup
+  public void setUp() {
+    graph = generator().graph();
+  }
+
+  private GraphGenerator generator() {
+    return new GraphGenerator(family, size, degree, 281);
+  }
+
+  /** Keeps a fresh copy of the input for the constructor, since the graph takes ownership of it. */
+  @State(Scope.Thread)
+  public static class Input {
+    private VertexTable<String> verticies;
+    private EdgeStore edges;
+
+    @Setup(Level.Invocation)
+    public void setUp(GraphBenchmark benchmark) {
+      verticies = new VertexTable<>();
+      edges = benchmark.generator().generate(verticies);
+    }
+  }
+
+  @Benchmark
+  public Graph<String> build(Input input) {
+    return new Graph<>(input.verticies, input.edges);
+  }
+
+  @Benchmark
+  public Set<String> getRoots() {
+    graph.clearCachedResults();
+    return graph.getRoots();
+  }
+
+  @Benchmark
+  public boolean isReflexive() {
+    graph.clearCachedResults();
+    return graph.isReflexive();
+  }
+
+  @Benchmark
+  public boolean isSymmetric() {
+    graph.clearCachedResults();
+    return graph.isSymmetric();
+  }
+
+  @Benchmark
+  public boolean isTransitive() {
+    graph.clearCachedResults();
+    return graph.isTransitive();
+  }
+
+  @Benchmark
+  public boolean isAntiSymmetric() {
+    graph.clearCachedResults();
+    return graph.isAntiSymmetric();
+  }
+
+  @Benchmark
+  public boolean isEquivalence() {
+    graph.clearCachedResults();
+    return graph.isEquivalence();
+  }
+
+  @Benchmark
+  public Set<String> getEquivalenceClass() {
+    graph.clearCachedResults();
+    return graph.getEquivalenceClass("0");
+  }
+
+  @Benchmark
+  public ReachabilityIndex<String> buildReachabilityIndex() {
+    graph.setReachabilityIndex(null);
+    return graph.getReachabilityIndex(Runtime.getRuntime().maxMemory() / 4);
+  }
+
+  @Benchmark
+  public Object iterativeBreadthFirstSearch() {
+    return graph.iterativeBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public Object parallelBreadthFirstSearch() {
+    return graph.parallelBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public Object iterativeDepthFirstSearch() {
+    return graph.iterativeDepthFirstSearch();
+  }
+
+  @Benchmark
+  public Object recursiveBreadthFirstSearch() {
+    return graph.recursiveBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public Object recursiveDepthFirstSearch() {
+    return graph.recursiveDepthFirstSearch();
+  }
+
+  @Benchmark
+  public LevelSearch<String> levelSearch() {
+    return graph.levelSearch();
+  }
+
+  @Benchmark
+  public Object orderedEdgeList() {
+    return graph.orderedEdgeList("0");
+  }
+
+  @Benchmark
+  public boolean addAndRemoveEdge() {
+    // Remove the edge again, so every invocation changes the same graph
+    graph.addEdge("0", "added");
+    return graph.removeEdge("0", "added");
+  }
+
+  @Benchmark
+  public void forEachVertex(Blackhole blackhole) {
+    graph.forEachVertex(blackhole::consume);
+  }
+
+  @Benchmark
+  public void forEachEdge(Blackhole blackhole) {
+    graph.forEachEdge(
+        (source, destination) -> {
+          blackhole.consume(source);
+          blackhole.consume(destination);
+        });
+  }
+}
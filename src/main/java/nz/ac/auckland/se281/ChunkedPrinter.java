@@ -0,0 +1,95 @@
+package nz.ac.auckland.se281;
+
+import java.io.PrintStream;
+
+/**
+ * Prints text to a stream in chunks of a fixed size, so a result with millions of parts is written
+ * as it is produced instead of being built into one string first. The memory used stays the same
+ * however large the output is.
+ */
+class ChunkedPrinter implements AutoCloseable {
+  // The number of characters collected before they are written to the stream
+  static final int CHUNK_SIZE = 8192;
+
+  private final PrintStream out;
+  private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 64);
+
+  // If the list being printed has no elements yet
+  private boolean firstElement;
+
+  /**
+   * Creates a printer that writes to the stream.
+   *
+   * @param out The stream to write to.
+   */
+  ChunkedPrinter(final PrintStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Prints the text of an object.
+   *
+   * @param value The object to print.
+   * @return This printer.
+   */
+  ChunkedPrinter print(final Object value) {
+    chunk.append(value);
+    if (chunk.length() >= CHUNK_SIZE) {
+      flush();
+    }
+    return this;
+  }
+
+  /**
+   * Ends the current line.
+   *
+   * @return This printer.
+   */
+  ChunkedPrinter println() {
+    return print(System.lineSeparator());
+  }
+
+  /**
+   * Starts a list in the format of {@link java.util.Arrays#toString(Object[])}.
+   *
+   * @return This printer.
+   */
+  ChunkedPrinter beginList() {
+    firstElement = true;
+    return print("[");
+  }
+
+  /**
+   * Prints the next element of the list, after a separator if it is not the first.
+   *
+   * @param element The element to print.
+   */
+  void element(final Object element) {
+    if (!firstElement) {
+      chunk.append(", ");
+    }
+    firstElement = false;
+    print(element);
+  }
+
+  /**
+   * Ends the list and the line.
+   *
+   * @return This printer.
+   */
+  ChunkedPrinter endList() {
+    return print("]").println();
+  }
+
+  /** Writes the collected characters to the stream. */
+  void flush() {
+    out.print(chunk);
+    chunk.setLength(0);
+  }
+
+  /** Writes the rest of the collected characters to the stream. */
+  @Override
+  public void close() {
+    flush();
+  }
+}
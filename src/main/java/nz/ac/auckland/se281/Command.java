@@ -8,19 +8,38 @@ package nz.ac.auckland.se281;
 public enum Command {
   OPEN_FILE(1, "Open the file <FILENAME>"),
   INFO(0, "Print information about the current loaded file"),
+  SAVE_SNAPSHOT(0, "Save a snapshot of the current loaded file that opens faster next time"),
 
   LIST_VERTICIES_EDGES(0, "List the set of vertices and edges"),
   LIST_ROOT_VERTICIES(0, "List the set of root vertices"),
 
+  ADD_VERTEX(1, "Add the vertex <VERTEX> to the current loaded graph"),
+  ADD_EDGE(2, "Add an edge from <SOURCE> to <DESTINATION>, adding either vertex if it is missing"),
+  REMOVE_EDGE(2, "Remove the edge from <SOURCE> to <DESTINATION>"),
+  APPLY_EDGES(
+      1,
+      "Apply the edge changes in the file <FILENAME>, each line \"+ SOURCE DESTINATION\" or"
+          + " \"- SOURCE DESTINATION\""),
+
   CHECK_REFLEXIVITY(0, "Check reflexivity of the graph"),
   CHECK_SYMMETRY(0, "Check symmetry of the graph"),
   CHECK_TRANSITIVITY(0, "Check transitivity of the graph"),
   CHECK_ANTISYMMETRY(0, "Check anti-symmetry of the graph"),
   CHECK_EQUIVALENCE(0, "Check equivalence of the graph"),
   COMPUTE_EQUIVALENCE(1, "Compute equivalence class for a vertex in loaded file <VERTEX>"),
+  REACHABLE(
+      2,
+      "Check if there is a path from <SOURCE> to <DESTINATION>, using an index of every path that"
+          + " is built the first time"),
 
   GRAPH_SEARCH_IBFS(
       0, "Perform a breadth-first search on the current loaded file, and display the BFS order"),
+  GRAPH_SEARCH_PBFS(
+      0,
+      "Perform a parallel breadth-first search on the current loaded file, and display the BFS"
+          + " order"),
+  GRAPH_SEARCH_LEVELS(
+      0, "Find the level of each vertex reachable from the roots, and display each level"),
   GRAPH_SEARCH_IDFS(
       0, "Perform a depth-first search on the current loaded file, and display the DFS order"),
 
@@ -0,0 +1,361 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import nz.ac.auckland.se281.datastructures.EdgeStore;
+import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.VertexTable;
+
+/**
+ * A streaming reader for the simple DOT files used by the calculator. The file is read through a
+ * buffer in blocks, and each vertex id and edge is added straight into the vertex table and edge
+ * store of the graph, so the file is never held in memory as a whole.
+ *
+ * <p>Only the following subset of DOT is supported: a digraph with an optional id, whose statements
+ * are unquoted vertex ids and chains of edges such as {@code a -> b -> c}, separated by optional
+ * semicolons, with {@code //}, {@code /* *}{@code /} and {@code #} comments. An unquoted id is
+ * either ASCII letters, digits and underscores that do not start with a digit, or a numeral such as
+ * {@code -1}, {@code .5} or {@code 2.5}. Anything else, such as attributes, quoted ids, subgraphs
+ * or an id like {@code 1a} that the full parser splits in two, is reported as unsupported so the
+ * caller can fall back to the full parser.
+ */
+public class DotReader {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private static final String[] KEYWORDS = {
+    "node", "edge", "graph", "digraph", "subgraph", "strict"
+  };
+
+  /** The kinds of token in the supported subset of DOT. */
+  private enum Token {
+    ID,
+    ARROW,
+    OPEN_BRACE,
+    CLOSE_BRACE,
+    SEMICOLON,
+    END,
+    UNSUPPORTED
+  }
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private boolean endOfFile;
+
+  // The bytes of the last id token that was read
+  private byte[] id = new byte[64];
+  private int idLength;
+
+  private DotReader(FileChannel channel) {
+    this.channel = channel;
+    // Start with an empty buffer that is ready to be read from
+    buffer.flip();
+  }
+
+  /**
+   * Reads a graph from a DOT file.
+   *
+   * @param file the path of the DOT file
+   * @return the graph, or null if the file uses syntax that is not supported by this reader
+   * @throws IOException if the file cannot be read
+   */
+  public static Graph<String> read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new DotReader(channel).readGraph();
+    }
+  }
+
+  /**
+   * Reads the digraph statement that makes up the file.
+   *
+   * @return the graph, or null if unsupported syntax is found
+   * @throws IOException if the file cannot be read
+   */
+  private Graph<String> readGraph() throws IOException {
+    final VertexTable<String> verticies = new VertexTable<>();
+    final EdgeStore edges = new EdgeStore();
+
+    // The header is "digraph", an optional id, and then the opening brace
+    if (next() != Token.ID || !isId("digraph")) {
+      return null;
+    }
+    Token token = next();
+    if (token == Token.ID) {
+      token = next();
+    }
+    if (token != Token.OPEN_BRACE) {
+      return null;
+    }
+
+    token = next();
+    while (token != Token.CLOSE_BRACE) {
+      if (token == Token.SEMICOLON) {
+        token = next();
+        continue;
+      }
+      // Each statement is a vertex, optionally followed by a chain of edges
+      if (token != Token.ID || isKeyword()) {
+        return null;
+      }
+      int source = verticies.add(idString());
+      token = next();
+      while (token == Token.ARROW) {
+        if (next() != Token.ID || isKeyword()) {
+          return null;
+        }
+        final int destination = verticies.add(idString());
+        edges.add(source, destination);
+        source = destination;
+        token = next();
+      }
+    }
+
+    // Only comments and whitespace may follow the closing brace
+    if (next() != Token.END) {
+      return null;
+    }
+    return new Graph<>(verticies, edges);
+  }
+
+  /**
+   * Reads the next token, skipping any whitespace and comments before it.
+   *
+   * @return the kind of the token
+   * @throws IOException if the file cannot be read
+   */
+  private Token next() throws IOException {
+    int b = skipWhitespaceAndComments();
+    if (b < 0) {
+      return Token.END;
+    }
+    switch (b) {
+      case '{':
+        read();
+        return Token.OPEN_BRACE;
+      case '}':
+        read();
+        return Token.CLOSE_BRACE;
+      case ';':
+        read();
+        return Token.SEMICOLON;
+      case '-':
+        read();
+        if (peek() == '>') {
+          read();
+          return Token.ARROW;
+        }
+        // A negative number, the minus sign is part of the id
+        if (!isIdByte(peek())) {
+          return Token.UNSUPPORTED;
+        }
+        idLength = 0;
+        appendId((byte) '-');
+        return readId();
+      default:
+        if (!isIdByte(b)) {
+          return Token.UNSUPPORTED;
+        }
+        idLength = 0;
+        return readId();
+    }
+  }
+
+  /**
+   * Reads the rest of an id token into the id buffer.
+   *
+   * @return the id token, or unsupported if it is not a DOT name or numeral
+   * @throws IOException if the file cannot be read
+   */
+  private Token readId() throws IOException {
+    while (isIdByte(peek())) {
+      appendId((byte) read());
+    }
+    return isName() || isNumeral() ? Token.ID : Token.UNSUPPORTED;
+  }
+
+  /**
+   * Skips whitespace and comments.
+   *
+   * @return the next byte after them without consuming it, or -1 at the end of the file
+   * @throws IOException if the file cannot be read
+   */
+  private int skipWhitespaceAndComments() throws IOException {
+    while (true) {
+      int b = peek();
+      if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+        read();
+      } else if (b == '#') {
+        skipLine();
+      } else if (b == '/') {
+        read();
+        int c = peek();
+        if (c == '/') {
+          skipLine();
+        } else if (c == '*') {
+          read();
+          skipBlockComment();
+        } else {
+          // A lone slash is not valid, so let the full parser report it
+          return '/';
+        }
+      } else {
+        return b;
+      }
+    }
+  }
+
+  private void skipLine() throws IOException {
+    int b = read();
+    while (b >= 0 && b != '\n') {
+      b = read();
+    }
+  }
+
+  private void skipBlockComment() throws IOException {
+    int previous = 0;
+    int b = read();
+    while (b >= 0 && !(previous == '*' && b == '/')) {
+      previous = b;
+      b = read();
+    }
+  }
+
+  /**
+   * Gets the next byte without consuming it, refilling the buffer from the file if needed.
+   *
+   * @return the next byte, or -1 at the end of the file
+   * @throws IOException if the file cannot be read
+   */
+  private int peek() throws IOException {
+    if (!buffer.hasRemaining()) {
+      if (endOfFile) {
+        return -1;
+      }
+      buffer.clear();
+      int count = channel.read(buffer);
+      while (count == 0) {
+        count = channel.read(buffer);
+      }
+      buffer.flip();
+      if (count < 0) {
+        endOfFile = true;
+        return -1;
+      }
+    }
+    return buffer.get(buffer.position()) & 0xFF;
+  }
+
+  /**
+   * Consumes the next byte.
+   *
+   * @return the next byte, or -1 at the end of the file
+   * @throws IOException if the file cannot be read
+   */
+  private int read() throws IOException {
+    int b = peek();
+    if (b >= 0) {
+      buffer.position(buffer.position() + 1);
+    }
+    return b;
+  }
+
+  private void appendId(byte b) {
+    if (idLength == id.length) {
+      id = Arrays.copyOf(id, id.length * 2);
+    }
+    id[idLength++] = b;
+  }
+
+  private String idString() {
+    return new String(id, 0, idLength, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks if the last id is the given ASCII word, ignoring case as DOT keywords do.
+   *
+   * @param word the word to compare with
+   * @return true if the id is the word
+   */
+  private boolean isId(String word) {
+    if (idLength != word.length()) {
+      return false;
+    }
+    for (int i = 0; i < idLength; i++) {
+      if (Character.toLowerCase(id[i]) != word.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isKeyword() {
+    for (final String keyword : KEYWORDS) {
+      if (isId(keyword)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the last id is letters, digits and underscores that do not start with a digit.
+   *
+   * @return true if the id is a DOT name
+   */
+  private boolean isName() {
+    if (isDigit(id[0])) {
+      return false;
+    }
+    for (int i = 0; i < idLength; i++) {
+      // The id is made of id bytes, apart from the minus sign of a numeral
+      if (id[i] == '-' || id[i] == '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the last id is a DOT numeral, an optional minus sign followed by digits with an
+   * optional fraction, or by only a fraction.
+   *
+   * @return true if the id is a numeral
+   */
+  private boolean isNumeral() {
+    int i = id[0] == '-' ? 1 : 0;
+    final int start = i;
+    while (i < idLength && isDigit(id[i])) {
+      i++;
+    }
+    boolean hasDigits = i > start;
+    if (i < idLength && id[i] == '.') {
+      i++;
+      final int fraction = i;
+      while (i < idLength && isDigit(id[i])) {
+        i++;
+      }
+      hasDigits |= i > fraction;
+    }
+    return hasDigits && i == idLength;
+  }
+
+  private static boolean isDigit(int b) {
+    return b >= '0' && b <= '9';
+  }
+
+  /**
+   * Checks if a byte can be part of an unquoted id or numeral. Ids with other characters, including
+   * ones outside of ASCII, are left to the full parser.
+   *
+   * @param b the byte, or -1 at the end of the file
+   * @return true if the byte can be in an id
+   */
+  private static boolean isIdByte(int b) {
+    return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || isDigit(b) || b == '_' || b == '.';
+  }
+}
@@ -0,0 +1,200 @@
+package nz.ac.auckland.se281;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the graphs opened in a session, so that opening a recently used file again does not
+ * load it from scratch and keeps the property results that were already computed for it.
+ *
+ * <p>Each graph is cached under its path, and is only reused while its file has the same size and
+ * last modified time as when it was loaded, so a file that has changed is loaded again. The cache
+ * is bounded by the estimated memory of the graphs rather than by their number, and the least
+ * recently opened graph is evicted first. A graph grows as the indexes behind its commands are
+ * built, so it is measured again after each command.
+ */
+public class GraphCache {
+
+  /** A loaded graph, with its estimated memory. */
+  private static class Entry {
+    private final GraphCalculator calculator;
+    private long size;
+
+    private Entry(final GraphCalculator calculator) {
+      this.calculator = calculator;
+      this.size = calculator.estimateMemory();
+    }
+  }
+
+  private final long capacity;
+
+  // In access order, so the first entry is the least recently opened one
+  private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long used;
+  private int hits;
+  private int misses;
+  private int evictions;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param capacity The estimated number of bytes the cached graphs may use.
+   */
+  public GraphCache(final long capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Opens a test case, reusing the graph loaded before if the file has not changed since.
+   *
+   * @param filename The name of the test case to open.
+   * @return The calculator of the graph.
+   * @throws FileNotFoundException If the file does not exist.
+   */
+  public GraphCalculator open(final String filename) throws FileNotFoundException {
+    final Path file = GraphCalculator.TESTCASES.resolve(filename).normalize();
+
+    if (!Files.isRegularFile(file)) {
+      throw new FileNotFoundException(file.toString());
+    }
+
+    final Entry cached = entries.get(file);
+
+    if (cached != null && isUnchanged(cached)) {
+      hits++;
+      measure(cached);
+      return cached.calculator;
+    }
+
+    misses++;
+
+    if (cached != null) {
+      // The file has changed, so the old graph is out of date.
+      remove(file);
+    }
+
+    final Entry entry = new Entry(new GraphCalculator(filename));
+    entries.put(file, entry);
+    used += entry.size;
+    evict(entry);
+
+    return entry.calculator;
+  }
+
+  /**
+   * Checks if the file of a cached graph is unchanged since the graph was loaded.
+   *
+   * @param entry The entry of the graph.
+   * @return If the graph can be reused.
+   */
+  private static boolean isUnchanged(final Entry entry) {
+    try {
+      return entry.calculator.isFileUnchanged();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Forgets the graph of a calculator that has been changed, so opening its file again loads the
+   * file rather than the changed graph.
+   *
+   * @param calculator The calculator of the changed graph.
+   */
+  public void forget(final GraphCalculator calculator) {
+    final Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      final Entry entry = iterator.next().getValue();
+
+      if (entry.calculator == calculator) {
+        used -= entry.size;
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Measures the graph of a calculator again, since the commands run on it may have built indexes
+   * that use more memory, and evicts the least recently opened graphs if the cache no longer fits.
+   *
+   * @param calculator The calculator of the graph.
+   */
+  public void measure(final GraphCalculator calculator) {
+    Entry measured = null;
+
+    // Find the entry first, since evicting while iterating would break the iteration.
+    for (final Entry entry : entries.values()) {
+      if (entry.calculator == calculator) {
+        measured = entry;
+        break;
+      }
+    }
+
+    if (measured != null) {
+      measure(measured);
+    }
+  }
+
+  /**
+   * Measures the graph of an entry again, and evicts other graphs if the cache no longer fits.
+   *
+   * @param entry The entry of the graph.
+   */
+  private void measure(final Entry entry) {
+    final long size = entry.calculator.estimateMemory();
+    used += size - entry.size;
+    entry.size = size;
+    evict(entry);
+  }
+
+  /**
+   * Evicts the least recently opened graphs until the rest fit.
+   *
+   * @param kept The entry of the graph in use, which is never evicted even if it does not fit.
+   */
+  private void evict(final Entry kept) {
+    final Iterator<Entry> iterator = entries.values().iterator();
+
+    while (used > capacity && iterator.hasNext()) {
+      final Entry entry = iterator.next();
+
+      if (entry != kept) {
+        used -= entry.size;
+        iterator.remove();
+        evictions++;
+      }
+    }
+  }
+
+  /**
+   * Removes a graph from the cache.
+   *
+   * @param file The path of the graph's file.
+   */
+  private void remove(final Path file) {
+    final Entry entry = entries.remove(file);
+
+    if (entry != null) {
+      used -= entry.size;
+    }
+  }
+
+  /** Prints the number of hits, misses and evictions, and the memory used by the cache. */
+  public void printInfo() {
+    MessageCli.CACHE_INFO.printMessage(
+        String.valueOf(hits),
+        String.valueOf(misses),
+        String.valueOf(evictions),
+        String.valueOf(entries.size()),
+        String.valueOf(used),
+        String.valueOf(capacity));
+  }
+}
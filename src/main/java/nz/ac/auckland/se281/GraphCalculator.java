@@ -3,15 +3,25 @@ package nz.ac.auckland.se281;
 import com.paypal.digraph.parser.GraphEdge;
 import com.paypal.digraph.parser.GraphNode;
 import com.paypal.digraph.parser.GraphParser;
-import java.io.FileInputStream;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 import nz.ac.auckland.se281.datastructures.Edge;
+import nz.ac.auckland.se281.datastructures.EdgeStore;
 import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.GraphSnapshot;
+import nz.ac.auckland.se281.datastructures.LevelSearch;
+import nz.ac.auckland.se281.datastructures.ReachabilityIndex;
+import nz.ac.auckland.se281.datastructures.VertexTable;
 
 /**
  * The calculator that reports properties of graphs to the user.
@@ -19,16 +29,21 @@ import nz.ac.auckland.se281.datastructures.Graph;
  * <p>You should not modify this class.
  */
 public class GraphCalculator {
-  private static final Path TESTCASES = Path.of("testcases");
+  static final Path TESTCASES = Path.of("testcases");
+  // The most memory a reachability index may use, the same share of the heap as the graph cache
+  static final long REACHABILITY_LIMIT = Runtime.getRuntime().maxMemory() / 4;
 
   private final Path file;
 
-  private final Collection<GraphNode> verticies;
-
-  private final Collection<GraphEdge> edges;
+  // The size and last modified time of the file when it was loaded, which its snapshot records
+  private final long fileSize;
+  private final FileTime fileModified;
 
   private final Graph<String> graph;
 
+  // If the graph has been changed since it was loaded, so it no longer matches its file
+  private boolean modified;
+
   /**
    * Creates a new graph calculator.
    *
@@ -38,24 +53,89 @@ public class GraphCalculator {
   public GraphCalculator(final String filename) throws FileNotFoundException {
     file = TESTCASES.resolve(filename);
 
-    final GraphParser parser = new GraphParser(new FileInputStream(file.toFile()));
+    if (!Files.isRegularFile(file)) {
+      throw new FileNotFoundException(file.toString());
+    }
 
-    this.verticies = parser.getNodes().values();
-    this.edges = parser.getEdges().values();
+    try {
+      // Read these before the graph, so a change made while it loads makes the snapshot stale
+      fileSize = Files.size(file);
+      fileModified = Files.getLastModifiedTime(file);
+      this.graph = load(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
-    final Set<String> verticies = new HashSet<>();
+  /**
+   * Loads a graph from its snapshot if the file has not changed since the snapshot was saved, and
+   * otherwise from the DOT file itself.
+   *
+   * @param file The path of the DOT file.
+   * @return The graph.
+   * @throws IOException If the file cannot be read.
+   */
+  private static Graph<String> load(final Path file) throws IOException {
+    Graph<String> graph = GraphSnapshot.read(file);
+
+    if (graph == null) {
+      // Most files only use the simple subset of DOT that the streaming reader supports.
+      graph = DotReader.read(file);
+    }
 
-    for (final GraphNode node : this.verticies) {
+    return graph != null ? graph : parse(file);
+  }
+
+  /**
+   * Reads a graph with the full DOT parser, for files that use syntax the streaming reader does not
+   * support.
+   *
+   * @param file The path of the DOT file.
+   * @return The graph.
+   * @throws IOException If the file cannot be read.
+   */
+  static Graph<String> parse(final Path file) throws IOException {
+    final GraphParser parser;
+
+    try (InputStream in = Files.newInputStream(file)) {
+      parser = new GraphParser(in);
+    }
+
+    // Give each vertex its index once while loading, so the graph only works with integers.
+    final VertexTable<String> verticies = new VertexTable<>();
+
+    for (final GraphNode node : parser.getNodes().values()) {
       verticies.add(node.getId());
     }
 
-    final Set<Edge<String>> edges = new HashSet<>();
+    // Store the edges as pairs of indicies rather than as Edge objects, the graph drops any
+    // duplicate edges when it is built.
+    final EdgeStore edges = new EdgeStore(parser.getEdges().size());
 
-    for (final GraphEdge edge : this.edges) {
-      edges.add(new Edge<>(edge.getNode1().getId(), edge.getNode2().getId()));
+    for (final GraphEdge edge : parser.getEdges().values()) {
+      edges.add(verticies.add(edge.getNode1().getId()), verticies.add(edge.getNode2().getId()));
     }
 
-    graph = new Graph<>(verticies, edges);
+    return new Graph<>(verticies, edges);
+  }
+
+  /**
+   * Checks if the file still has the size and last modified time it had when it was loaded.
+   *
+   * @return If the file is unchanged.
+   * @throws IOException If the file cannot be read.
+   */
+  boolean isFileUnchanged() throws IOException {
+    return Files.size(file) == fileSize && Files.getLastModifiedTime(file).equals(fileModified);
+  }
+
+  /**
+   * Estimates the number of bytes of memory used by the loaded graph.
+   *
+   * @return The estimated size in bytes.
+   */
+  public long estimateMemory() {
+    return graph.estimateMemory();
   }
 
   /** Prints the filename of the test case that is loaded. */
@@ -63,32 +143,166 @@ public class GraphCalculator {
     MessageCli.INFO.printMessage(TESTCASES.relativize(file).toString());
   }
 
-  /** Prints the set of verticies and edges in the graph. */
-  public void printVerticiesEdges() {
-    final StringBuilder sb = new StringBuilder("Verticies:").append(System.lineSeparator());
+  /**
+   * Saves a snapshot of the graph next to its file, so it loads faster the next time.
+   *
+   * @return If the snapshot was saved.
+   */
+  public boolean saveSnapshot() {
+    if (modified) {
+      MessageCli.SNAPSHOT_MODIFIED.printMessage(TESTCASES.relativize(file).toString());
+      return false;
+    }
+
+    try {
+      final Path snapshot = GraphSnapshot.write(graph, file, fileSize, fileModified);
+      MessageCli.SNAPSHOT_SAVED.printMessage(TESTCASES.relativize(snapshot).toString());
+      return true;
+    } catch (IOException e) {
+      MessageCli.SNAPSHOT_FAILED.printMessage(TESTCASES.relativize(file).toString());
+      return false;
+    }
+  }
+
+  /**
+   * Checks if the graph has been changed since it was loaded.
+   *
+   * @return If the graph no longer matches its file.
+   */
+  public boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * Adds a vertex to the graph.
+   *
+   * @param vertex The vertex to add.
+   */
+  public void addVertex(final String vertex) {
+    if (graph.addVertex(vertex)) {
+      modified = true;
+      MessageCli.VERTEX_ADDED.printMessage(vertex);
+    } else {
+      MessageCli.VERTEX_ALREADY_PRESENT.printMessage(vertex);
+    }
+  }
+
+  /**
+   * Adds an edge to the graph, and either of its verticies that are not in the graph.
+   *
+   * @param source The source vertex of the edge.
+   * @param destination The destination vertex of the edge.
+   */
+  public void addEdge(final String source, final String destination) {
+    if (graph.addEdge(source, destination)) {
+      modified = true;
+      MessageCli.EDGE_ADDED.printMessage(source, destination);
+    } else {
+      MessageCli.EDGE_ALREADY_PRESENT.printMessage(source, destination);
+    }
+  }
 
-    // Vertically print each vertex.
-    for (final GraphNode node : verticies) {
-      sb.append("\t").append(node.getId()).append(System.lineSeparator());
+  /**
+   * Removes an edge from the graph.
+   *
+   * @param source The source vertex of the edge.
+   * @param destination The destination vertex of the edge.
+   */
+  public void removeEdge(final String source, final String destination) {
+    if (graph.removeEdge(source, destination)) {
+      modified = true;
+      MessageCli.EDGE_REMOVED.printMessage(source, destination);
+    } else {
+      MessageCli.EDGE_NOT_PRESENT.printMessage(source, destination);
     }
+  }
 
-    sb.append(System.lineSeparator()).append("Edges:").append(System.lineSeparator());
+  /**
+   * Applies the edge changes listed in a file in the test cases folder. Each line is "+ SOURCE
+   * DESTINATION" to add an edge or "- SOURCE DESTINATION" to remove one, and blank lines and lines
+   * starting with "#" are skipped. The removals are applied before the additions, and nothing is
+   * applied if any line is invalid.
+   *
+   * @param filename The name of the file of changes.
+   * @return If every line of the file was valid.
+   * @throws FileNotFoundException If the file does not exist.
+   */
+  public boolean applyEdges(final String filename) throws FileNotFoundException {
+    final Path changes = TESTCASES.resolve(filename);
 
-    // Vertically print each edge between verticies.
-    for (final GraphEdge edge : edges) {
-      sb.append("\t")
-          .append(edge.getNode1().getId())
-          .append(" -> ")
-          .append(edge.getNode2().getId())
-          .append(System.lineSeparator());
+    if (!Files.isRegularFile(changes)) {
+      throw new FileNotFoundException(changes.toString());
     }
 
-    System.out.print(sb.toString());
+    final Set<Edge<String>> added = new LinkedHashSet<>();
+    final Set<Edge<String>> removed = new LinkedHashSet<>();
+    int count = 0;
+
+    try (BufferedReader reader = Files.newBufferedReader(changes, StandardCharsets.UTF_8)) {
+      int lineNumber = 0;
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+
+        final String[] parts = line.split("\\s+");
+
+        if (parts.length != 3 || !(parts[0].equals("+") || parts[0].equals("-"))) {
+          MessageCli.EDGE_CHANGE_INVALID.printMessage(String.valueOf(lineNumber), filename);
+          return false;
+        }
+
+        if (parts[0].equals("+")) {
+          added.add(new Edge<>(parts[1], parts[2]));
+        } else {
+          removed.add(new Edge<>(parts[1], parts[2]));
+        }
+        count++;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final int changed = graph.applyEdges(added, removed);
+
+    if (changed > 0) {
+      modified = true;
+    }
+
+    MessageCli.EDGES_APPLIED.printMessage(
+        String.valueOf(changed), String.valueOf(count), filename);
+    return true;
+  }
+
+  /**
+   * Prints the set of verticies and edges in the graph. The verticies are printed in vertex order,
+   * with the numbers first in numeric order, and the edges by source and then destination in the
+   * same order. An edge that is in the file more than once is printed once.
+   */
+  public void printVerticiesEdges() {
+    try (ChunkedPrinter out = new ChunkedPrinter(System.out)) {
+      out.print("Verticies:").println();
+
+      // Vertically print each vertex.
+      graph.forEachVertex(vertex -> out.print("\t").print(vertex).println());
+
+      out.println().print("Edges:").println();
+
+      // Vertically print each edge between verticies.
+      graph.forEachEdge(
+          (source, destination) ->
+              out.print("\t").print(source).print(" -> ").print(destination).println());
+    }
   }
 
   /** Prints the set of verticies in the graph that are root verticies. */
   public void printRoots() {
-    System.out.println(graph.getRoots());
+    printList(graph.getRoots()::forEach);
   }
 
   /** Prints if the set of verticies in the graph exhibit the reflexivity property. */
@@ -122,29 +336,104 @@ public class GraphCalculator {
    * @param vertex The vertex to compute the equivalence class of.
    */
   public void printEquivalenceClass(final String vertex) {
-    final Object[] equivalenceClass = graph.getEquivalenceClass(vertex).toArray();
-    Arrays.sort(equivalenceClass);
-    System.out.println(Arrays.toString(equivalenceClass));
+    // The graph returns the class already in vertex order
+    printList(graph.getEquivalenceClass(vertex)::forEach);
+  }
+
+  /**
+   * Prints if there is a path from one vertex to another. The first query builds an index of every
+   * path in the graph and reports how long it took and how much memory it uses, and then each
+   * query is answered in constant time until the graph is changed.
+   *
+   * @param source The vertex the path starts at.
+   * @param destination The vertex the path ends at.
+   * @return If the query was answered.
+   */
+  public boolean printReachable(final String source, final String destination) {
+    for (final String vertex : new String[] {source, destination}) {
+      if (!graph.containsVertex(vertex)) {
+        MessageCli.VERTEX_NOT_PRESENT.printMessage(vertex);
+        return false;
+      }
+    }
+
+    final boolean built = !graph.hasReachabilityIndex();
+    final long start = System.nanoTime();
+    final ReachabilityIndex<String> index = graph.getReachabilityIndex(REACHABILITY_LIMIT);
+    if (index == null) {
+      MessageCli.REACHABILITY_TOO_LARGE.printMessage(
+          TESTCASES.relativize(file).toString(), String.valueOf(REACHABILITY_LIMIT));
+      return false;
+    }
+    if (built) {
+      MessageCli.REACHABILITY_BUILT.printMessage(
+          String.valueOf(index.getComponentCount()),
+          String.valueOf((System.nanoTime() - start) / 1_000_000),
+          String.valueOf(index.estimateMemory()));
+    }
+
+    MessageCli.GRAPH_REACHABLE.printMessage(
+        source, prefixNot(index.canReach(source, destination)), destination);
+    return true;
   }
 
   /** Prints the search order of an iterative breadth first search. */
   public void printIterativeBreadthFirstSearch() {
-    System.out.println(Arrays.toString(graph.iterativeBreadthFirstSearch().toArray()));
+    printList(graph::iterativeBreadthFirstSearch);
+  }
+
+  /** Prints the search order of a breadth first search that expands each level in parallel. */
+  public void printParallelBreadthFirstSearch() {
+    printList(graph::parallelBreadthFirstSearch);
+  }
+
+  /** Prints the verticies of each level of a search from the roots, and how each was scanned. */
+  public void printLevels() {
+    final LevelSearch<String> search = graph.levelSearch();
+
+    try (ChunkedPrinter out = new ChunkedPrinter(System.out)) {
+      for (int level = 0; level < search.getLevelCount(); level++) {
+        // The verticies are the last part of the message, so they are printed after the rest of it
+        out.print(
+            MessageCli.GRAPH_LEVEL.getMessage(
+                String.valueOf(level), search.getDirection(level).toString(), ""));
+        out.beginList();
+        search.forEachInLevel(level, out::element);
+        out.endList();
+      }
+    }
+
+    MessageCli.GRAPH_REACHED.printMessage(
+        String.valueOf(search.getReachedCount()), String.valueOf(graph.getVertexCount()));
   }
 
   /** Prints the search order of an iterative depth first search. */
   public void printDepthFirstSearch() {
-    System.out.println(Arrays.toString(graph.iterativeDepthFirstSearch().toArray()));
+    printList(graph::iterativeDepthFirstSearch);
   }
 
   /** Prints the search order of a recursive breadth first search. */
   public void printRecursiveBreadthFirstSearch() {
-    System.out.println(Arrays.toString(graph.recursiveBreadthFirstSearch().toArray()));
+    printList(graph::recursiveBreadthFirstSearch);
   }
 
   /** Prints the search order of a recursive depth first search. */
   public void printRecursiveDepthFirstSearch() {
-    System.out.println(Arrays.toString(graph.recursiveDepthFirstSearch().toArray()));
+    printList(graph::recursiveDepthFirstSearch);
+  }
+
+  /**
+   * Prints a list of verticies in the format of {@link java.util.Arrays#toString(Object[])}, as
+   * each vertex is produced rather than after they have all been collected.
+   *
+   * @param producer Passes each vertex of the list in order to the given action.
+   */
+  private static void printList(final Consumer<Consumer<String>> producer) {
+    try (ChunkedPrinter out = new ChunkedPrinter(System.out)) {
+      out.beginList();
+      producer.accept(out::element);
+      out.endList();
+    }
   }
 
   /**
@@ -0,0 +1,257 @@
+package nz.ac.auckland.se281;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import nz.ac.auckland.se281.datastructures.EdgeStore;
+import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.GraphSnapshot;
+import nz.ac.auckland.se281.datastructures.VertexBitSet;
+import nz.ac.auckland.se281.datastructures.VertexTable;
+
+/**
+ * Generates large synthetic graphs for benchmarks and stress tests. The verticies are named by the
+ * numbers from 0 to vertexCount-1, and every graph is generated from a fixed seed, so the same
+ * arguments always give the same graph.
+ *
+ * <p>The edges are generated as a stream rather than stored, so a DOT file with tens of millions
+ * of edges can be written with memory for only one bit per vertex. Run it with:
+ *
+ * <pre>
+ * ./mvnw compile exec:java@generate -Dexec.args="FAMILY VERTICIES DEGREE SEED FILE [snapshot]"
+ * </pre>
+ */
+public class GraphGenerator {
+
+  /** The families of graph that can be generated. */
+  public enum Family {
+    /** DEGREE edges from each vertex to uniformly random verticies. */
+    RANDOM,
+    /** DEGREE edges from each vertex, to destinations with power law in degrees. */
+    POWER_LAW,
+    /** A single path through every vertex. */
+    CHAIN,
+    /** DEGREE edges from each vertex to verticies a little after it, so there are no cycles. */
+    DAG,
+    /** Disjoint complete groups of DEGREE verticies with self loops, an equivalence relation. */
+    CLIQUES,
+    /** Groups of DEGREE verticies that are each totally ordered, with a few edges left out. */
+    NEAR_TRANSITIVE
+  }
+
+  /** Receives each generated edge. */
+  @FunctionalInterface
+  public interface EdgeConsumer {
+    /**
+     * Receives an edge.
+     *
+     * @param source the index of the source vertex
+     * @param destination the index of the destination vertex
+     */
+    void accept(int source, int destination);
+  }
+
+  // How far after its source a destination of a DAG may be
+  private static final int DAG_WINDOW = 64;
+  // The exponent of the in degree distribution of the power law family
+  private static final double POWER_LAW_EXPONENT = 2.5;
+  // About one in this many of the edges of a near transitive relation are left out
+  private static final int MISSING_EDGE_RATE = 1000;
+
+  private final Family family;
+  private final int vertexCount;
+  private final int degree;
+  private final long seed;
+
+  /**
+   * Creates a generator of one graph.
+   *
+   * @param family the family of the graph
+   * @param vertexCount the number of verticies
+   * @param degree the number of edges from each vertex, or the size of each group
+   * @param seed the seed of the random numbers
+   */
+  public GraphGenerator(Family family, int vertexCount, int degree, long seed) {
+    if (vertexCount < 1 || degree < 1) {
+      throw new IllegalArgumentException("The verticies and degree must be at least 1");
+    }
+    this.family = family;
+    this.vertexCount = vertexCount;
+    this.degree = degree;
+    this.seed = seed;
+  }
+
+  /**
+   * Generates the edges of the graph, in the same order every time.
+   *
+   * @param consumer the consumer of each edge
+   */
+  public void generate(EdgeConsumer consumer) {
+    final Random random = new Random(seed);
+
+    switch (family) {
+      case RANDOM:
+        for (int source = 0; source < vertexCount; source++) {
+          for (int i = 0; i < degree; i++) {
+            consumer.accept(source, random.nextInt(vertexCount));
+          }
+        }
+        break;
+      case POWER_LAW:
+        // Inverse transform sampling of ranks with a continuous power law, so no table is needed
+        final double power = 1 - 1 / (POWER_LAW_EXPONENT - 1);
+        final double top = Math.pow(vertexCount + 1, power) - 1;
+        for (int source = 0; source < vertexCount; source++) {
+          for (int i = 0; i < degree; i++) {
+            final double rank = Math.pow(random.nextDouble() * top + 1, 1 / power) - 1;
+            consumer.accept(source, Math.min(vertexCount - 1, (int) rank));
+          }
+        }
+        break;
+      case CHAIN:
+        for (int source = 0; source + 1 < vertexCount; source++) {
+          consumer.accept(source, source + 1);
+        }
+        break;
+      case DAG:
+        for (int source = 0; source + 1 < vertexCount; source++) {
+          for (int i = 0; i < degree; i++) {
+            consumer.accept(
+                source, Math.min(vertexCount - 1, source + 1 + random.nextInt(DAG_WINDOW)));
+          }
+        }
+        break;
+      case CLIQUES:
+        for (int first = 0; first < vertexCount; first += degree) {
+          final int end = (int) Math.min(vertexCount, (long) first + degree);
+          for (int source = first; source < end; source++) {
+            for (int destination = first; destination < end; destination++) {
+              consumer.accept(source, destination);
+            }
+          }
+        }
+        break;
+      case NEAR_TRANSITIVE:
+        for (int first = 0; first < vertexCount; first += degree) {
+          final int end = (int) Math.min(vertexCount, (long) first + degree);
+          for (int source = first; source < end; source++) {
+            for (int destination = source + 1; destination < end; destination++) {
+              // Leaving out an edge that skips a vertex breaks transitivity through that vertex
+              if (destination > source + 1 && random.nextInt(MISSING_EDGE_RATE) == 0) {
+                continue;
+              }
+              consumer.accept(source, destination);
+            }
+          }
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown family " + family);
+    }
+  }
+
+  /**
+   * Generates the graph into a symbol table and a store of edges, ready to build a {@link Graph}.
+   *
+   * @param verticies the empty symbol table to add the verticies to
+   * @return the edges of the graph
+   */
+  public EdgeStore generate(VertexTable<String> verticies) {
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      verticies.add(String.valueOf(vertex));
+    }
+    final EdgeStore edges = new EdgeStore();
+    generate(edges::add);
+    return edges;
+  }
+
+  /**
+   * Generates the graph.
+   *
+   * @return the graph
+   */
+  public Graph<String> graph() {
+    final VertexTable<String> verticies = new VertexTable<>();
+    final EdgeStore edges = generate(verticies);
+    return new Graph<>(verticies, edges);
+  }
+
+  /**
+   * Writes the graph to a DOT file in the format of the test cases. The verticies without any edges
+   * are written on their own first, so the file has every vertex.
+   *
+   * @param file the path of the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void writeDot(Path file) throws IOException {
+    // Generate the edges twice, once to find the verticies without edges and once to write them
+    final VertexBitSet connected = new VertexBitSet(vertexCount);
+    generate(
+        (source, destination) -> {
+          connected.add(source);
+          connected.add(destination);
+        });
+
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      out.write("digraph testgraph {\n");
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        if (!connected.contains(vertex)) {
+          out.write(" " + vertex + ";\n");
+        }
+      }
+      try {
+        generate(
+            (source, destination) -> {
+              try {
+                out.write(" " + source + " -> " + destination + ";\n");
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      out.write("}\n");
+    }
+  }
+
+  /**
+   * Generates a graph from the command line arguments, and writes it to a DOT file and optionally
+   * a snapshot next to it.
+   *
+   * @param args the family, number of verticies, degree, seed and file, then "snapshot" to also
+   *     save a snapshot
+   * @throws IOException if the files cannot be written
+   */
+  public static void main(final String[] args) throws IOException {
+    if (args.length < 5 || args.length > 6 || (args.length == 6 && !args[5].equals("snapshot"))) {
+      System.err.println("Usage: GraphGenerator FAMILY VERTICIES DEGREE SEED FILE [snapshot]");
+      System.err.println("Families: " + Arrays.toString(Family.values()));
+      System.exit(1);
+    }
+
+    final GraphGenerator generator =
+        new GraphGenerator(
+            Family.valueOf(args[0].toUpperCase(Locale.ROOT).replace('-', '_')),
+            Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]),
+            Long.parseLong(args[3]));
+    final Path file = Path.of(args[4]);
+
+    generator.writeDot(file);
+    System.out.println("Wrote " + file);
+
+    if (args.length == 6) {
+      final Path snapshot =
+          GraphSnapshot.write(
+              generator.graph(), file, Files.size(file), Files.getLastModifiedTime(file));
+      System.out.println("Wrote " + snapshot);
+    }
+  }
+}
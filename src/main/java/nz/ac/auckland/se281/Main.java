@@ -1,6 +1,13 @@
 package nz.ac.auckland.se281;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -11,8 +18,60 @@ import java.util.Scanner;
 public class Main {
   private static final String COMMAND_PREFIX = "graph-calculator> ";
 
+  private static final String BATCH_FLAG = "--batch";
+
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Starts the command line interface. With no arguments the commands are read interactively.
+   * Otherwise the commands are run as a batch, from the given script file or from standard input
+   * after "--batch", and the exit status is 1 if any command failed.
+   *
+   * @param args Nothing, "--batch", "--batch SCRIPT" or "SCRIPT".
+   */
   public static void main(final String[] args) {
-    new Main(new Scanner(System.in)).start();
+    if (args.length == 0) {
+      new Main(new Scanner(System.in)).start();
+      return;
+    }
+
+    final boolean batch = args[0].equals(BATCH_FLAG);
+
+    if (args.length > 2 || (args.length == 2 && !batch)) {
+      System.err.println(MessageCli.BATCH_USAGE.getMessage());
+      System.exit(2);
+    }
+
+    final String script = batch ? (args.length == 2 ? args[1] : null) : args[0];
+    final Scanner scanner;
+
+    try {
+      scanner =
+          script == null
+              ? new Scanner(System.in, StandardCharsets.UTF_8)
+              : new Scanner(Path.of(script), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      System.err.println(MessageCli.SCRIPT_NOT_READABLE.getMessage(script));
+      System.exit(2);
+      return;
+    }
+
+    // Write all of the results through one large buffer, that is only flushed when it is full.
+    final PrintStream out =
+        new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE),
+            false,
+            StandardCharsets.UTF_8);
+    System.setOut(out);
+
+    final int status;
+    try {
+      status = new Main(scanner).runBatch();
+    } finally {
+      // Write the results so far even if the batch stopped on an error
+      out.flush();
+    }
+    System.exit(status);
   }
 
   /**
@@ -44,8 +103,14 @@ public class Main {
 
   private final Scanner scanner;
 
+  // The loaded graphs may use up to a quarter of the heap.
+  private final GraphCache cache = new GraphCache(Runtime.getRuntime().maxMemory() / 4);
+
   private GraphCalculator calculator;
 
+  // The number of commands that failed, which sets the exit status of a batch
+  private int errors;
+
   /**
    * Create a new command line interface.
    *
@@ -68,6 +133,34 @@ public class Main {
     } while (processCommand(command));
   }
 
+  /**
+   * Run every command of a batch without printing the help or prompts, until the exit command or
+   * the end of the input. Blank lines and lines starting with "#" are skipped. A command that
+   * throws an exception is counted as failed, and the batch carries on with the next command.
+   *
+   * @return The exit status, 0 if every command succeeded and 1 otherwise.
+   */
+  public int runBatch() {
+    while (scanner.hasNextLine()) {
+      final String command = scanner.nextLine().trim();
+
+      if (command.isEmpty() || command.startsWith("#")) {
+        continue;
+      }
+
+      try {
+        if (!processCommand(command)) {
+          break;
+        }
+      } catch (final RuntimeException e) {
+        MessageCli.COMMAND_FAILED.printMessage(command, String.valueOf(e));
+        errors++;
+      }
+    }
+
+    return errors == 0 ? 0 : 1;
+  }
+
   /**
    * Execute a command entered by the user and determine if more commands are expected.
    *
@@ -90,6 +183,7 @@ public class Main {
       command = Command.valueOf(commandStr);
     } catch (final Exception e) {
       MessageCli.COMMAND_NOT_FOUND.printMessage(commandStr);
+      errors++;
       return true;
     }
 
@@ -98,6 +192,7 @@ public class Main {
       final String numCommandArgs = String.valueOf(command.getNumArgs());
       final String plural = command.getNumArgs() > 1 ? "s" : "";
       MessageCli.WRONG_ARGUMENT_COUNT.printMessage(numCommandArgs, plural, commandStr);
+      errors++;
       return true;
     }
 
@@ -109,6 +204,7 @@ public class Main {
         && command != Command.EXIT
         && command != Command.HELP) {
       MessageCli.FILE_NOT_OPEN.printMessage();
+      errors++;
       return true;
     }
 
@@ -117,14 +213,44 @@ public class Main {
         final String filename = args[1];
 
         try {
-          calculator = new GraphCalculator(filename);
+          calculator = cache.open(filename);
           MessageCli.OPENED_FILE_SUCCESSFULLY.printMessage(filename);
         } catch (FileNotFoundException e) {
           MessageCli.FILE_NOT_FOUND.printMessage(filename);
+          errors++;
         }
         break;
       case INFO:
         calculator.printInfo();
+        cache.printInfo();
+        break;
+      case SAVE_SNAPSHOT:
+        if (!calculator.saveSnapshot()) {
+          errors++;
+        }
+        break;
+      case ADD_VERTEX:
+        calculator.addVertex(args[1]);
+        forgetIfModified();
+        break;
+      case ADD_EDGE:
+        calculator.addEdge(args[1], args[2]);
+        forgetIfModified();
+        break;
+      case REMOVE_EDGE:
+        calculator.removeEdge(args[1], args[2]);
+        forgetIfModified();
+        break;
+      case APPLY_EDGES:
+        try {
+          if (!calculator.applyEdges(args[1])) {
+            errors++;
+          }
+        } catch (FileNotFoundException e) {
+          MessageCli.FILE_NOT_FOUND.printMessage(args[1]);
+          errors++;
+        }
+        forgetIfModified();
         break;
       case LIST_VERTICIES_EDGES:
         calculator.printVerticiesEdges();
@@ -150,9 +276,20 @@ public class Main {
       case COMPUTE_EQUIVALENCE:
         calculator.printEquivalenceClass(args[1]);
         break;
+      case REACHABLE:
+        if (!calculator.printReachable(args[1], args[2])) {
+          errors++;
+        }
+        break;
       case GRAPH_SEARCH_IBFS:
         calculator.printIterativeBreadthFirstSearch();
         break;
+      case GRAPH_SEARCH_PBFS:
+        calculator.printParallelBreadthFirstSearch();
+        break;
+      case GRAPH_SEARCH_LEVELS:
+        calculator.printLevels();
+        break;
       case GRAPH_SEARCH_IDFS:
         calculator.printDepthFirstSearch();
         break;
@@ -172,10 +309,25 @@ public class Main {
         break;
     }
 
+    if (calculator != null) {
+      // The command may have built an index of the graph, so its memory is counted again
+      cache.measure(calculator);
+    }
+
     // Signal that another command is expected.
     return true;
   }
 
+  /**
+   * Remove the current graph from the cache once it has been changed, so opening its file again
+   * loads the file as it is on disk.
+   */
+  private void forgetIfModified() {
+    if (calculator.isModified()) {
+      cache.forget(calculator);
+    }
+  }
+
   /**
    * Check that the correct number of arguments were provided for the command.
    *
@@ -1,5 +1,7 @@
 package nz.ac.auckland.se281;
 
+import java.util.regex.Matcher;
+
 /**
  * Templates of messages that can be printed to the CLI.
  *
@@ -12,16 +14,42 @@ public enum MessageCli {
       "Error! Incorrect number of arguments provided. Expected %s argument%s for the \"%s\""
           + " command"),
 
+  BATCH_USAGE("Usage: Main [--batch] [SCRIPT]"),
+  SCRIPT_NOT_READABLE("Error: script '%s' could not be read"),
+  COMMAND_FAILED("Error: command \"%s\" failed with %s"),
+
   OPENED_FILE_SUCCESSFULLY("Successfully opened graph from file %s"),
   FILE_NOT_OPEN("Error: no valid file open"),
   FILE_NOT_FOUND("Error: file '%s' not found in `testcases` folder"),
   INFO("File name: %s"),
+  CACHE_INFO(
+      "Graph cache: %s hits, %s misses, %s evictions, %s graphs using about %s of %s bytes"),
+  SNAPSHOT_SAVED("Saved snapshot to %s"),
+  SNAPSHOT_FAILED("Error: could not save a snapshot of '%s'"),
+  SNAPSHOT_MODIFIED("Error: the graph of '%s' has been changed, so no snapshot was saved"),
+
+  VERTEX_ADDED("Added vertex %s"),
+  VERTEX_ALREADY_PRESENT("Vertex %s is already in the graph"),
+  EDGE_ADDED("Added edge %s -> %s"),
+  EDGE_ALREADY_PRESENT("Edge %s -> %s is already in the graph"),
+  EDGE_REMOVED("Removed edge %s -> %s"),
+  EDGE_NOT_PRESENT("Edge %s -> %s is not in the graph"),
+  EDGES_APPLIED("Applied %s of %s edge changes from %s"),
+  EDGE_CHANGE_INVALID(
+      "Error: line %s of '%s' is not \"+ SOURCE DESTINATION\" or \"- SOURCE DESTINATION\""),
 
   GRAPH_REFLEXIVE("The graph is %sreflexive"),
   GRAPH_SYMMETRIC("The graph is %ssymmetric"),
   GRAPH_ANTI_SYMMETRIC("The graph is %santisymmetric"),
   GRAPH_EQUIVALENCE("The graph is %san equivalence relation"),
   GRAPH_TRANSITIVE("The graph is %stransitive"),
+  GRAPH_LEVEL("Level %s (%s): %s"),
+  GRAPH_REACHED("Reached %s of %s verticies from the roots"),
+  GRAPH_REACHABLE("%s can %sreach %s"),
+  VERTEX_NOT_PRESENT("Vertex %s is not in the graph"),
+  REACHABILITY_BUILT(
+      "Built a reachability index of %s components in %s ms, using about %s bytes"),
+  REACHABILITY_TOO_LARGE("Error: a reachability index of '%s' would need more than %s bytes"),
 
   END("You closed the terminal. Goodbye.");
 
@@ -47,7 +75,8 @@ public enum MessageCli {
     String tmpMessage = msg;
 
     for (final String arg : args) {
-      tmpMessage = tmpMessage.replaceFirst("%s", arg);
+      // The argument is quoted, so a "$" or a backslash in it is printed as it is
+      tmpMessage = tmpMessage.replaceFirst("%s", Matcher.quoteReplacement(arg));
     }
 
     return tmpMessage;
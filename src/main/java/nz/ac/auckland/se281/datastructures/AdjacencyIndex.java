@@ -0,0 +1,378 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A compressed sparse row (CSR) index of the out-going edges of each vertex. The verticies are
+ * identified by their index from 0 to vertexCount-1, and the destinations of each vertex are stored
+ * in ascending order in one shared array.
+ *
+ * <p>The destinations of vertex v are found at positions start(v) (inclusive) to end(v) (exclusive)
+ * of the shared array.
+ *
+ * <p>The index can be changed after it is built. Each row may have unused space after its end, so
+ * an edge is added by shifting the rest of its row along by one. A row with no space left is moved
+ * to the end of the shared array with room to double, so adding edges to one vertex copies its row
+ * a logarithmic number of times. The space left behind by moved rows is reclaimed once the shared
+ * array is full.
+ */
+public class AdjacencyIndex {
+
+  // The space given to a row the first time it is moved
+  private static final int MINIMUM_ROW_CAPACITY = 4;
+
+  // The first position of each row, followed by the end of the used part of the shared array
+  private int[] starts;
+  // The position after the last destination of each row
+  private int[] ends;
+  // The position after the space of each row, that it can grow into without moving
+  private int[] limits;
+  private int[] targets;
+  private int vertexCount;
+  private int edgeCount;
+  // If each row is stored after the row of the vertex before it
+  private boolean ordered = true;
+
+  /**
+   * Builds the index from a store of edges.
+   *
+   * @param vertexCount the number of verticies in the graph
+   * @param edges the edges of the graph
+   */
+  public AdjacencyIndex(int vertexCount, EdgeStore edges) {
+    int edgeCount = edges.size();
+    // Counting sort by destination first, then a stable counting sort by source, so every row ends
+    // up sorted without comparing any verticies.
+    int[] byDestination = new int[edgeCount];
+    int[] counts = new int[vertexCount + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      counts[edges.destination(i) + 1]++;
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      counts[v + 1] += counts[v];
+    }
+    for (int i = 0; i < edgeCount; i++) {
+      byDestination[counts[edges.destination(i)]++] = i;
+    }
+
+    int[] offsets = new int[vertexCount + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      offsets[edges.source(i) + 1]++;
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    int[] targets = new int[edgeCount];
+    int[] next = new int[vertexCount];
+    for (int v = 0; v < vertexCount; v++) {
+      next[v] = offsets[v];
+    }
+    for (int edge : byDestination) {
+      targets[next[edges.source(edge)]++] = edges.destination(edge);
+    }
+    setRows(offsets, targets);
+  }
+
+  /**
+   * Creates the index from its arrays, such as the ones read back from a snapshot.
+   *
+   * @param offsets the start of each row, followed by the number of edges
+   * @param targets the destinations of every row, each row in ascending order
+   */
+  AdjacencyIndex(int[] offsets, int[] targets) {
+    setRows(offsets, targets);
+  }
+
+  /**
+   * Sets the rows to the packed rows of a compressed sparse row index, without any unused space.
+   *
+   * @param offsets the start of each row, followed by the number of edges
+   * @param targets the destinations of every row, each row in ascending order
+   */
+  private void setRows(int[] offsets, int[] targets) {
+    vertexCount = offsets.length - 1;
+    edgeCount = offsets[vertexCount];
+    starts = offsets;
+    ends = Arrays.copyOfRange(offsets, 1, offsets.length);
+    limits = ends.clone();
+    this.targets = targets;
+    ordered = true;
+  }
+
+  /**
+   * Builds the transpose of the index, where the row of each vertex holds the sources of the edges
+   * entering it. The sources are visited in ascending order, so every row is still sorted.
+   *
+   * @return the index of the in-coming edges
+   */
+  public AdjacencyIndex transpose() {
+    int[] inOffsets = new int[vertexCount + 1];
+    for (int source = 0; source < vertexCount; source++) {
+      for (int i = start(source); i < end(source); i++) {
+        inOffsets[targets[i] + 1]++;
+      }
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      inOffsets[v + 1] += inOffsets[v];
+    }
+    int[] sources = new int[edgeCount];
+    int[] next = new int[vertexCount];
+    System.arraycopy(inOffsets, 0, next, 0, vertexCount);
+    for (int source = 0; source < vertexCount; source++) {
+      for (int i = start(source); i < end(source); i++) {
+        sources[next[targets[i]]++] = source;
+      }
+    }
+    return new AdjacencyIndex(inOffsets, sources);
+  }
+
+  /**
+   * Gets the number of verticies in the index.
+   *
+   * @return the number of verticies
+   */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * Gets the number of edges in the index.
+   *
+   * @return the number of edges
+   */
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Gets the position of the first destination of the vertex. While the rows are {@link
+   * #isOrdered() ordered}, the start of vertexCount is the end of the last row's space.
+   *
+   * @param vertex the index of the vertex
+   * @return the first position of the vertex's row
+   */
+  public int start(int vertex) {
+    return starts[vertex];
+  }
+
+  /**
+   * Gets the position after the last destination of the vertex.
+   *
+   * @param vertex the index of the vertex
+   * @return the position after the end of the vertex's row
+   */
+  public int end(int vertex) {
+    return ends[vertex];
+  }
+
+  /**
+   * Gets the destination stored at a position of the shared array.
+   *
+   * @param position a position between start(v) and end(v) of some vertex v
+   * @return the index of the destination vertex
+   */
+  public int target(int position) {
+    return targets[position];
+  }
+
+  /**
+   * Gets the out degree of a vertex.
+   *
+   * @param vertex the index of the vertex
+   * @return the number of edges leaving the vertex
+   */
+  public int degree(int vertex) {
+    return end(vertex) - start(vertex);
+  }
+
+  /**
+   * Checks if there is an edge from the source to the destination, using a binary search of the
+   * source's sorted row.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge exists
+   */
+  public boolean contains(int source, int destination) {
+    return find(source, destination) >= 0;
+  }
+
+  /**
+   * Finds the position of a destination in the sorted row of the source with a binary search.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return the position of the destination, or -(insertion point) - 1 if it is not in the row
+   */
+  private int find(int source, int destination) {
+    int low = start(source);
+    int high = end(source) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = targets[middle];
+      if (value < destination) {
+        low = middle + 1;
+      } else if (value > destination) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Checks if every row is stored after the row of the vertex before it, so the positions between
+   * the starts of two verticies hold the rows of the verticies between them. Moving a row to the
+   * end of the shared array breaks the order until the index is {@link #compact() compacted}.
+   *
+   * @return true if the rows are in vertex order
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * Adds an edge to the index, keeping the row of the source sorted.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was not already in the index
+   */
+  public boolean insert(int source, int destination) {
+    int position = find(source, destination);
+    if (position >= 0) {
+      return false;
+    }
+    position = -position - 1;
+    if (ends[source] == limits[source]) {
+      // The row is full, so move it somewhere it has room to grow
+      int offset = position - starts[source];
+      moveRow(source, Math.max(MINIMUM_ROW_CAPACITY, degree(source) * 2));
+      position = starts[source] + offset;
+    }
+    System.arraycopy(targets, position, targets, position + 1, ends[source] - position);
+    targets[position] = destination;
+    ends[source]++;
+    edgeCount++;
+    return true;
+  }
+
+  /**
+   * Removes an edge from the index. The space it leaves stays with the row of the source.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was in the index
+   */
+  public boolean remove(int source, int destination) {
+    int position = find(source, destination);
+    if (position < 0) {
+      return false;
+    }
+    System.arraycopy(targets, position + 1, targets, position, ends[source] - position - 1);
+    ends[source]--;
+    edgeCount--;
+    return true;
+  }
+
+  /**
+   * Inserts a vertex without any edges, so the verticies from the given index onwards each move up
+   * by one. Adding a vertex at the end only grows the arrays of the rows, but adding one anywhere
+   * else renumbers the destinations of every row.
+   *
+   * @param index the index of the new vertex
+   */
+  public void insertVertex(int index) {
+    if (vertexCount + 2 > starts.length) {
+      int capacity = vertexCount + (vertexCount >> 1) + 2;
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      limits = Arrays.copyOf(limits, capacity);
+    }
+    // Move the start of the used space along with the rows
+    System.arraycopy(starts, index, starts, index + 1, vertexCount + 1 - index);
+    System.arraycopy(ends, index, ends, index + 1, vertexCount - index);
+    System.arraycopy(limits, index, limits, index + 1, vertexCount - index);
+    // The new row has no space, so it sits at the start of the next row without breaking the order
+    starts[index] = starts[index + 1];
+    ends[index] = starts[index];
+    limits[index] = starts[index];
+    vertexCount++;
+
+    if (index < vertexCount - 1) {
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        for (int i = starts[vertex]; i < ends[vertex]; i++) {
+          if (targets[i] >= index) {
+            targets[i]++;
+          }
+        }
+      }
+    }
+  }
+
+  /** Packs the rows back together in vertex order, without any unused space between them. */
+  public void compact() {
+    pack(edgeCount);
+  }
+
+  /**
+   * Moves a row to the end of the used part of the shared array, making the array larger first if
+   * there is not enough room. A row that is already last is grown where it is.
+   *
+   * @param vertex the index of the vertex
+   * @param capacity the space to give the row
+   */
+  private void moveRow(int vertex, int capacity) {
+    int used = starts[vertexCount];
+    if (limits[vertex] == used && starts[vertex] + capacity <= targets.length) {
+      limits[vertex] = starts[vertex] + capacity;
+      starts[vertexCount] = limits[vertex];
+      return;
+    }
+    if (used + capacity > targets.length) {
+      // Reclaim the space left behind by other rows, and leave room for more rows to move
+      int needed = edgeCount + capacity;
+      pack(needed + (needed >> 1));
+      used = starts[vertexCount];
+    }
+    int degree = degree(vertex);
+    System.arraycopy(targets, starts[vertex], targets, used, degree);
+    // Moving the last row keeps the rows in order
+    ordered &= vertex == vertexCount - 1;
+    starts[vertex] = used;
+    ends[vertex] = used + degree;
+    limits[vertex] = used + capacity;
+    starts[vertexCount] = limits[vertex];
+  }
+
+  /**
+   * Copies the rows in vertex order into a new shared array, without any unused space.
+   *
+   * @param length the length of the new shared array, at least the number of edges
+   */
+  private void pack(int length) {
+    int[] packed = new int[Math.max(length, edgeCount)];
+    int position = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      int degree = degree(vertex);
+      System.arraycopy(targets, starts[vertex], packed, position, degree);
+      starts[vertex] = position;
+      position += degree;
+      ends[vertex] = position;
+      limits[vertex] = position;
+    }
+    starts[vertexCount] = position;
+    targets = packed;
+    ordered = true;
+  }
+
+  /**
+   * Estimates the number of bytes of memory used by the index, including the unused space.
+   *
+   * @return the estimated size of the index in bytes
+   */
+  public long estimateMemory() {
+    return (long) Integer.BYTES * (targets.length + starts.length + ends.length + limits.length);
+  }
+}
@@ -1,5 +1,7 @@
 package nz.ac.auckland.se281.datastructures;
 
+import java.util.Objects;
+
 /**
  * An edge in a graph that connects two verticies.
  *
@@ -9,13 +11,16 @@ package nz.ac.auckland.se281.datastructures;
  */
 public class Edge<T> {
 
-  private T source;
-  private T destination;
+  private final T source;
+  private final T destination;
+  // Edges are immutable, so the hash is only computed once
+  private final int hash;
 
   // Constructor for Edge using source and destination
   public Edge(T source, T destination) {
     this.source = source;
     this.destination = destination;
+    this.hash = 31 * Objects.hashCode(source) + Objects.hashCode(destination);
   }
 
   // Getter for source
@@ -27,4 +32,29 @@ public class Edge<T> {
   public T getDestination() {
     return destination;
   }
+
+  /**
+   * Two edges are equal if they have equal sources and equal destinations.
+   *
+   * @param other the object to compare with
+   * @return true if the other object is an edge between the same verticies
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Edge)) {
+      return false;
+    }
+    Edge<?> edge = (Edge<?>) other;
+    return hash == edge.hash
+        && Objects.equals(source, edge.source)
+        && Objects.equals(destination, edge.destination);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
 }
@@ -0,0 +1,181 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of edges, where each edge is packed into a single long key made of the source index
+ * in the upper 32 bits and the destination index in the lower 32 bits. The keys are stored in one
+ * long array using open addressing with linear probing, so checking if an edge exists does not
+ * create any objects.
+ */
+public class EdgeKeySet {
+
+  // Indicies are never negative, so -1 is never the key of an edge
+  private static final long EMPTY = -1L;
+  private static final int MINIMUM_CAPACITY = 16;
+
+  private long[] keys;
+  private int size;
+
+  /** Creates an empty set. */
+  public EdgeKeySet() {
+    this(0);
+  }
+
+  /**
+   * Creates an empty set that can hold the expected number of edges without resizing.
+   *
+   * @param expectedSize the number of edges that will be added
+   */
+  public EdgeKeySet(int expectedSize) {
+    keys = newTable(capacityFor(expectedSize));
+  }
+
+  /**
+   * Packs an edge into its key.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return the key of the edge
+   */
+  public static long key(int source, int destination) {
+    return ((long) source << 32) | (destination & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Adds an edge to the set.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was not already in the set
+   */
+  public boolean add(int source, int destination) {
+    long key = key(source, destination);
+    int slot = find(key);
+    if (keys[slot] == key) {
+      return false;
+    }
+    keys[slot] = key;
+    size++;
+    // Keep the table at most half full so the probe sequences stay short
+    if (size * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Checks if an edge is in the set.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge is in the set
+   */
+  public boolean contains(int source, int destination) {
+    long key = key(source, destination);
+    return keys[find(key)] == key;
+  }
+
+  /**
+   * Removes an edge from the set.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was in the set
+   */
+  public boolean remove(int source, int destination) {
+    long key = key(source, destination);
+    int slot = find(key);
+    if (keys[slot] != key) {
+      return false;
+    }
+    // Shift the following keys of the probe sequence back, so no tombstone is needed
+    int mask = keys.length - 1;
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = hash(keys[next]) & mask;
+      // Move the key into the gap if its home slot is not between the gap and its current slot
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = EMPTY;
+    size--;
+    return true;
+  }
+
+  /** Removes every edge from the set, keeping its capacity. */
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  /**
+   * Gets the number of edges in the set.
+   *
+   * @return the number of edges
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Finds the slot that holds the key, or the empty slot where it would be added.
+   *
+   * @param key the key of an edge
+   * @return the slot in the table
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Moves all the keys into a new table of the given capacity.
+   *
+   * @param capacity the new capacity, a power of two
+   */
+  private void resize(int capacity) {
+    long[] old = keys;
+    keys = newTable(capacity);
+    for (long key : old) {
+      if (key != EMPTY) {
+        keys[find(key)] = key;
+      }
+    }
+  }
+
+  /**
+   * Mixes the bits of a key so that edges from the same source spread over the table.
+   *
+   * @param key the key of an edge
+   * @return the hash of the key
+   */
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xFF51AFD7ED558CCDL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MINIMUM_CAPACITY;
+    while (capacity < expectedSize * 2L) {
+      capacity *= 2;
+    }
+    return capacity;
+  }
+
+  private static long[] newTable(int capacity) {
+    long[] table = new long[capacity];
+    Arrays.fill(table, EMPTY);
+    return table;
+  }
+}
@@ -0,0 +1,107 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of edges, stored as two parallel arrays of source and destination indicies. Each
+ * edge takes 8 bytes, instead of an {@link Edge} object that points to two vertex objects.
+ */
+public class EdgeStore {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] sources;
+  private int[] destinations;
+  private int size;
+
+  /** Creates an empty edge store. */
+  public EdgeStore() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty edge store that can hold the given number of edges before growing.
+   *
+   * @param capacity the initial capacity
+   */
+  public EdgeStore(int capacity) {
+    sources = new int[Math.max(capacity, 1)];
+    destinations = new int[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Adds an edge to the end of the store.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   */
+  public void add(int source, int destination) {
+    if (size == sources.length) {
+      int capacity = sources.length + (sources.length >> 1) + 1;
+      sources = Arrays.copyOf(sources, capacity);
+      destinations = Arrays.copyOf(destinations, capacity);
+    }
+    sources[size] = source;
+    destinations[size] = destination;
+    size++;
+  }
+
+  /**
+   * Gets the number of edges in the store.
+   *
+   * @return the number of edges
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the source of an edge.
+   *
+   * @param edge the position of the edge in the store
+   * @return the index of the source vertex
+   */
+  public int source(int edge) {
+    return sources[edge];
+  }
+
+  /**
+   * Gets the destination of an edge.
+   *
+   * @param edge the position of the edge in the store
+   * @return the index of the destination vertex
+   */
+  public int destination(int edge) {
+    return destinations[edge];
+  }
+
+  /**
+   * Renames the verticies of every edge, after the verticies have been given new indicies.
+   *
+   * @param relabel an array where position i holds the new index of the vertex that had index i
+   */
+  public void relabel(int[] relabel) {
+    for (int edge = 0; edge < size; edge++) {
+      sources[edge] = relabel[sources[edge]];
+      destinations[edge] = relabel[destinations[edge]];
+    }
+  }
+
+  /**
+   * Removes the repeated edges, keeping the first copy of each edge in its original order. Each
+   * edge that is kept is added to the given key set.
+   *
+   * @param keys an empty key set, that is filled with the edges of the store
+   */
+  public void removeDuplicates(EdgeKeySet keys) {
+    int kept = 0;
+    for (int edge = 0; edge < size; edge++) {
+      if (keys.add(sources[edge], destinations[edge])) {
+        sources[kept] = sources[edge];
+        destinations[kept] = destinations[edge];
+        kept++;
+      }
+    }
+    size = kept;
+  }
+}
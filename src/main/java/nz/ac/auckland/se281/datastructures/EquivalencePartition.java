@@ -0,0 +1,162 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * The partition of the verticies of an equivalence relation into its equivalence classes. The
+ * classes are found with a union-find over the edges, and then the members of each class are
+ * stored together in ascending order, so the first member of a class is its minimum.
+ *
+ * <p>The classes are numbered from 0 in the order of their minimum vertex.
+ */
+public class EquivalencePartition {
+
+  private final int[] classOf;
+  // The members of class c are at positions classStart[c] to classStart[c + 1] - 1 of members
+  private final int[] classStart;
+  private final int[] members;
+
+  /**
+   * Builds the partition of the verticies in one pass over the edges.
+   *
+   * @param adjacency the adjacency index of the edges of the graph
+   */
+  public EquivalencePartition(AdjacencyIndex adjacency) {
+    int vertexCount = adjacency.vertexCount();
+    // Union-find, where each vertex starts in its own set
+    int[] parent = new int[vertexCount];
+    int[] setSize = new int[vertexCount];
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      parent[vertex] = vertex;
+      setSize[vertex] = 1;
+    }
+    for (int source = 0; source < vertexCount; source++) {
+      for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+        int first = find(parent, source);
+        int second = find(parent, adjacency.target(i));
+        if (first != second) {
+          // Attach the smaller set under the larger one to keep the trees shallow
+          if (setSize[first] < setSize[second]) {
+            int swap = first;
+            first = second;
+            second = swap;
+          }
+          parent[second] = first;
+          setSize[first] += setSize[second];
+        }
+      }
+    }
+
+    // Number the classes in the order their smallest vertex is found
+    classOf = new int[vertexCount];
+    int[] classOfRoot = new int[vertexCount];
+    int classCount = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      // The class numbers are stored plus one, so 0 means the set has no class yet
+      int root = find(parent, vertex);
+      if (classOfRoot[root] == 0) {
+        classCount++;
+        classOfRoot[root] = classCount;
+      }
+      classOf[vertex] = classOfRoot[root] - 1;
+    }
+
+    // Group the members of each class, they are added in ascending order
+    classStart = new int[classCount + 1];
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      classStart[classOf[vertex] + 1]++;
+    }
+    for (int c = 0; c < classCount; c++) {
+      classStart[c + 1] += classStart[c];
+    }
+    members = new int[vertexCount];
+    int[] next = new int[classCount];
+    for (int c = 0; c < classCount; c++) {
+      next[c] = classStart[c];
+    }
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      members[next[classOf[vertex]]++] = vertex;
+    }
+  }
+
+  /**
+   * Finds the root of the set of a vertex, pointing every vertex on the way at its grandparent.
+   *
+   * @param parent the parent of each vertex
+   * @param vertex the vertex to find the root of
+   * @return the root of the set
+   */
+  private static int find(int[] parent, int vertex) {
+    while (parent[vertex] != vertex) {
+      parent[vertex] = parent[parent[vertex]];
+      vertex = parent[vertex];
+    }
+    return vertex;
+  }
+
+  /**
+   * Gets the number of equivalence classes.
+   *
+   * @return the number of classes
+   */
+  public int classCount() {
+    return classStart.length - 1;
+  }
+
+  /**
+   * Gets the class of a vertex.
+   *
+   * @param vertex the index of the vertex
+   * @return the number of its class
+   */
+  public int classOf(int vertex) {
+    return classOf[vertex];
+  }
+
+  /**
+   * Gets the smallest vertex of a class.
+   *
+   * @param equivalenceClass the number of the class
+   * @return the index of its minimum vertex
+   */
+  public int minimum(int equivalenceClass) {
+    return members[classStart[equivalenceClass]];
+  }
+
+  /**
+   * Gets the position of the first member of a class.
+   *
+   * @param equivalenceClass the number of the class
+   * @return the first position of the class in the members
+   */
+  public int start(int equivalenceClass) {
+    return classStart[equivalenceClass];
+  }
+
+  /**
+   * Gets the position after the last member of a class.
+   *
+   * @param equivalenceClass the number of the class
+   * @return the position after the end of the class in the members
+   */
+  public int end(int equivalenceClass) {
+    return classStart[equivalenceClass + 1];
+  }
+
+  /**
+   * Gets the member stored at a position.
+   *
+   * @param position a position between start(c) and end(c) of some class c
+   * @return the index of the member vertex
+   */
+  public int member(int position) {
+    return members[position];
+  }
+
+  /**
+   * Estimates the number of bytes of memory the partition uses.
+   *
+   * @return the estimated size of the partition in bytes
+   */
+  public long estimateMemory() {
+    return (long) Integer.BYTES * (classOf.length + classStart.length + members.length);
+  }
+}
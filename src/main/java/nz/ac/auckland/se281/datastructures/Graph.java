@@ -1,90 +1,603 @@
 package nz.ac.auckland.se281.datastructures;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import nz.ac.auckland.se281.datastructures.PropertyCache.Property;
 
 /**
  * A graph that is composed of a set of verticies and edges.
  *
+ * <p>Verticies and edges can be added and edges removed after the graph is built. Each change
+ * updates the adjacency index, the degrees and the cached properties that it affects, rather than
+ * building them again.
+ *
  * <p>You must NOT change the signature of the existing methods or constructor of this class.
  *
  * @param <T> The type of each vertex, that have a total ordering.
  */
 public class Graph<T extends Comparable<T>> {
 
-  // Comparator class for the list
-  private class ListComparator<T> implements Comparator<T> {
-    @Override
-    // Compare the two vertices of type T by casting as a string and comparing the integers
-    public int compare(T vertex1, T vertex2) {
-      if (vertex1 instanceof String && vertex2 instanceof String) {
-        String s1 = (String) vertex1;
-        String s2 = (String) vertex2;
-        return Integer.compare(Integer.parseInt(s1), Integer.parseInt(s2));
+  /**
+   * The rest of a recursive search. A recursive helper returns its recursive call as a
+   * continuation instead of making it, so the calls run one after the other in {@link
+   * #trampoline(Continuation)} and the call stack does not grow with the size of the graph.
+   */
+  private interface Continuation {
+    /**
+     * Runs one call of the recursive helper.
+     *
+     * @return the next recursive call, or null if the recursion has finished
+     */
+    Continuation resume();
+  }
+
+  // A batch of changes to more than 1/BULK_REBUILD of the edges rebuilds the index instead
+  private static final int BULK_REBUILD = 8;
+
+  // The verticies in sorted order, each vertex is referred to by its index in the table
+  private VertexTable<T> verticies;
+  // The edges without any duplicates, as indicies into the vertex table
+  private AdjacencyIndex adjacency;
+  // The in-coming edges of each vertex, only built once a search or the property counts need them
+  private AdjacencyIndex transpose;
+  private EdgeKeySet edgeKeys;
+  // The number of edges entering and leaving each vertex
+  private int[] inDegree;
+  private int[] outDegree;
+  // The results of the property checks, which are each computed once
+  private PropertyCache properties = new PropertyCache();
+  // The counts that keep the properties up to date, only built once the graph changes
+  private PropertyCounts counts;
+  // The equivalence classes, only built once the graph is known to be an equivalence relation
+  private EquivalencePartition partition;
+  // The transitive closure, only built once a reachability query needs it
+  private ReachabilityIndex<T> reachability;
+  // Runs the property checks, in parallel on large graphs
+  private PropertyChecker checker;
+  // The pool that the parallel checks and searches run on
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  /**
+   * Creates a graph and builds the adjacency index of its edges.
+   *
+   * @param verticies the set of verticies in the graph
+   * @param edges the set of edges between the verticies
+   */
+  public Graph(Set<T> verticies, Set<Edge<T>> edges) {
+    this(tableOf(verticies), edges);
+  }
+
+  // Builds the symbol table first, so the edges can be converted to indicies of it
+  private Graph(VertexTable<T> verticies, Set<Edge<T>> edges) {
+    this(verticies, storeOf(verticies, edges));
+  }
+
+  /**
+   * Creates a graph from a symbol table of verticies and a store of edges that were built while the
+   * graph was loaded. The graph takes ownership of both, and renumbers the verticies into sorted
+   * order.
+   *
+   * @param verticies the symbol table of the verticies in the graph
+   * @param edges the edges between the verticies, as indicies into the symbol table
+   */
+  public Graph(VertexTable<T> verticies, EdgeStore edges) {
+    // Sort the verticies once so that each row of the adjacency index is already in search order
+    this.verticies = verticies;
+    index(edges, verticies.sort());
+  }
+
+  /**
+   * Creates a graph from a symbol table that is already in vertex order and an adjacency index of
+   * its edges, such as the ones read back from a snapshot.
+   *
+   * @param verticies the symbol table of the verticies, in vertex order
+   * @param adjacency the adjacency index of the edges, without duplicates
+   */
+  Graph(VertexTable<T> verticies, AdjacencyIndex adjacency) {
+    this.verticies = verticies;
+    this.adjacency = adjacency;
+    edgeKeys = new EdgeKeySet(adjacency.edgeCount());
+    addKeys(edgeKeys, adjacency);
+    countDegrees();
+  }
+
+  /**
+   * Builds the key set, adjacency index and degrees of a store of edges. The store is not kept, the
+   * adjacency index holds every edge from then on.
+   *
+   * @param edges the edges, which may have duplicates
+   * @param relabel the new index of each vertex that the edges refer to, after the table is sorted
+   */
+  private void index(EdgeStore edges, int[] relabel) {
+    edges.relabel(relabel);
+    edgeKeys = new EdgeKeySet(edges.size());
+    edges.removeDuplicates(edgeKeys);
+    adjacency = new AdjacencyIndex(verticies.size(), edges);
+    countDegrees();
+  }
+
+  /**
+   * Adds the edges of an adjacency index to a key set.
+   *
+   * @param keys the key set to add to
+   * @param adjacency the adjacency index of the edges
+   */
+  private static void addKeys(EdgeKeySet keys, AdjacencyIndex adjacency) {
+    for (int source = 0; source < adjacency.vertexCount(); source++) {
+      for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+        keys.add(source, adjacency.target(i));
       }
+    }
+  }
 
-      // Default comparison if types don't match
-      return vertex1.toString().compareTo(vertex2.toString());
+  /** Counts the edges entering and leaving each vertex in one pass over the edges. */
+  private void countDegrees() {
+    inDegree = new int[verticies.size()];
+    outDegree = new int[verticies.size()];
+    for (int source = 0; source < verticies.size(); source++) {
+      outDegree[source] = adjacency.degree(source);
+      for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+        inDegree[adjacency.target(i)]++;
+      }
     }
   }
 
-  private Set<T> verticies;
-  private Set<Edge<T>> edges;
+  /**
+   * Gets the symbol table of the verticies, in vertex order.
+   *
+   * @return the symbol table
+   */
+  VertexTable<T> getVertexTable() {
+    return verticies;
+  }
 
-  public Graph(Set<T> verticies, Set<Edge<T>> edges) {
-    this.verticies = verticies;
-    this.edges = edges;
+  /**
+   * Gets the adjacency index of the edges.
+   *
+   * @return the adjacency index
+   */
+  AdjacencyIndex getAdjacency() {
+    return adjacency;
+  }
+
+  /**
+   * Gets the reachability index, if it has been built since the graph last changed.
+   *
+   * @return the reachability index, or null if it has not been built
+   */
+  ReachabilityIndex<T> getBuiltReachabilityIndex() {
+    return reachability;
+  }
+
+  /**
+   * Attaches a reachability index that was built for the same verticies and edges.
+   *
+   * @param reachability the reachability index
+   */
+  void setReachabilityIndex(ReachabilityIndex<T> reachability) {
+    this.reachability = reachability;
+  }
+
+  /**
+   * Runs the parallel checks and searches on the given pool rather than the common pool, so they
+   * can be split across threads on a machine with few cores.
+   *
+   * @param pool the pool to run the tasks on
+   */
+  void usePool(ForkJoinPool pool) {
+    this.pool = pool;
+    checker = null;
+  }
+
+  /**
+   * Forgets the cached results of the property checks and the equivalence classes, so the next
+   * call of each check computes it again.
+   */
+  void clearCachedResults() {
+    properties.clear();
+    partition = null;
+  }
+
+  /**
+   * Builds a symbol table of the given verticies.
+   *
+   * @param verticies the set of verticies
+   * @return the symbol table
+   */
+  private static <T extends Comparable<T>> VertexTable<T> tableOf(Set<T> verticies) {
+    VertexTable<T> table = new VertexTable<T>();
+    for (T vertex : verticies) {
+      table.add(vertex);
+    }
+    return table;
+  }
+
+  /**
+   * Converts a set of edges into a store of edges between the indicies of the symbol table.
+   *
+   * @param verticies the symbol table of the verticies
+   * @param edges the set of edges
+   * @return the store of edges
+   */
+  private static <T extends Comparable<T>> EdgeStore storeOf(
+      VertexTable<T> verticies, Set<Edge<T>> edges) {
+    EdgeStore store = new EdgeStore(edges.size());
+    for (Edge<T> edge : edges) {
+      store.add(indexOf(verticies, edge.getSource()), indexOf(verticies, edge.getDestination()));
+    }
+    return store;
+  }
+
+  /**
+   * Finds the index of a vertex in the symbol table.
+   *
+   * @param verticies the symbol table of the verticies
+   * @param vertex an object of type T, a vertex in the graph
+   * @return the index of the vertex
+   */
+  private static <T extends Comparable<T>> int indexOf(VertexTable<T> verticies, T vertex) {
+    int index = verticies.indexOf(vertex);
+    if (index < 0) {
+      throw new IllegalArgumentException("Vertex " + vertex + " is not in the graph");
+    }
+    return index;
+  }
+
+  /**
+   * Checks if there is an edge between two verticies with a single probe of the edge key set.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge exists
+   */
+  private boolean hasEdge(int source, int destination) {
+    return edgeKeys.contains(source, destination);
+  }
+
+  /**
+   * Gets the number of verticies in the graph.
+   *
+   * @return the number of verticies
+   */
+  public int getVertexCount() {
+    return verticies.size();
+  }
+
+  /**
+   * Checks if a vertex is in the graph.
+   *
+   * @param vertex the vertex to look for
+   * @return true if the vertex is in the graph
+   */
+  public boolean containsVertex(T vertex) {
+    return verticies.indexOf(vertex) >= 0;
+  }
+
+  /**
+   * Gets the number of edges in the graph, not counting duplicates.
+   *
+   * @return the number of edges
+   */
+  public int getEdgeCount() {
+    return adjacency.edgeCount();
+  }
+
+  /**
+   * Estimates the number of bytes of memory the graph uses. The adjacency indicies are measured,
+   * including the space left in their rows. Each edge is also held in the key set, which is kept
+   * between a quarter and half full. Each vertex has its id, its entries in the symbol table and
+   * its two degrees. The equivalence partition and reachability index are included once they have
+   * been built.
+   *
+   * @return the estimated size of the graph in bytes
+   */
+  public long estimateMemory() {
+    final long bytesPerKey = 24;
+    final long bytesPerVertex = 112 + 8;
+    long bytes = adjacency.estimateMemory();
+    if (transpose != null) {
+      bytes += transpose.estimateMemory();
+    }
+    if (partition != null) {
+      bytes += partition.estimateMemory();
+    }
+    if (reachability != null) {
+      bytes += reachability.estimateMemory();
+    }
+    return bytes + getEdgeCount() * bytesPerKey + verticies.size() * bytesPerVertex;
+  }
+
+  /**
+   * Passes each vertex of the graph to the action, in ascending order.
+   *
+   * @param action the action to perform on each vertex
+   */
+  public void forEachVertex(Consumer<? super T> action) {
+    for (int vertex = 0; vertex < verticies.size(); vertex++) {
+      action.accept(verticies.get(vertex));
+    }
+  }
+
+  /**
+   * Passes the source and destination of each edge of the graph to the action, ordered by source
+   * and then by destination.
+   *
+   * @param action the action to perform on each edge
+   */
+  public void forEachEdge(BiConsumer<? super T, ? super T> action) {
+    for (int source = 0; source < verticies.size(); source++) {
+      for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+        action.accept(verticies.get(source), verticies.get(adjacency.target(i)));
+      }
+    }
+  }
+
+  /**
+   * Adds a vertex without any edges to the graph. A vertex that comes after every vertex already
+   * in the graph is added in constant time, but a vertex anywhere else renumbers the verticies
+   * after it, which takes time in proportion to the size of the graph.
+   *
+   * @param vertex the vertex to add
+   * @return true if the vertex was not already in the graph
+   */
+  public boolean addVertex(T vertex) {
+    if (verticies.indexOf(vertex) >= 0) {
+      return false;
+    }
+    int index = verticies.insertionPoint(vertex);
+    boolean renumbered = index < verticies.size();
+    verticies.insert(index, vertex);
+    adjacency.insertVertex(index);
+    if (transpose != null) {
+      transpose.insertVertex(index);
+    }
+    inDegree = insertZero(inDegree, index, verticies.size());
+    outDegree = insertZero(outDegree, index, verticies.size());
+    if (renumbered) {
+      // The property counts keep the key set, so it is refilled rather than replaced
+      edgeKeys.clear();
+      addKeys(edgeKeys, adjacency);
+    }
+
+    // The new vertex has no edge to itself, and it does not change any of the other properties
+    properties.put(Property.REFLEXIVE, false);
+    properties.put(Property.EQUIVALENCE, false);
+    partition = null;
+    reachability = null;
+    return true;
+  }
+
+  /**
+   * Inserts a zero into an array of counts, growing it if it is full.
+   *
+   * @param counts the array of counts
+   * @param index the position of the new count
+   * @param size the number of counts once the zero is inserted
+   * @return the array of counts, which is a new array if it had to grow
+   */
+  private static int[] insertZero(int[] counts, int index, int size) {
+    if (counts.length < size) {
+      counts = Arrays.copyOf(counts, size + (size >> 1));
+    }
+    System.arraycopy(counts, index, counts, index + 1, size - 1 - index);
+    counts[index] = 0;
+    return counts;
+  }
+
+  /**
+   * Adds an edge to the graph, adding its source and destination first if they are not in it.
+   *
+   * @param source the source vertex of the edge
+   * @param destination the destination vertex of the edge
+   * @return true if the edge was not already in the graph
+   */
+  public boolean addEdge(T source, T destination) {
+    // Add both verticies before finding either index, since adding one may renumber the other
+    addVertex(source);
+    addVertex(destination);
+    return addEdge(verticies.indexOf(source), verticies.indexOf(destination));
+  }
+
+  /**
+   * Removes an edge from the graph. Its source and destination stay in the graph.
+   *
+   * @param source the source vertex of the edge
+   * @param destination the destination vertex of the edge
+   * @return true if the edge was in the graph
+   */
+  public boolean removeEdge(T source, T destination) {
+    int sourceIndex = verticies.indexOf(source);
+    int destinationIndex = verticies.indexOf(destination);
+    return sourceIndex >= 0 && destinationIndex >= 0 && removeEdge(sourceIndex, destinationIndex);
+  }
+
+  /**
+   * Removes a batch of edges and then adds a batch of edges, so an edge in both batches ends up in
+   * the graph. A small batch is applied one edge at a time, but a batch that changes more than an
+   * eighth of the edges builds the adjacency index again, since that is faster than so many single
+   * changes.
+   *
+   * @param added the edges to add, with any verticies of them that are not in the graph
+   * @param removed the edges to remove
+   * @return the number of edges that were added or removed
+   */
+  public int applyEdges(Set<Edge<T>> added, Set<Edge<T>> removed) {
+    if ((long) added.size() + removed.size() <= getEdgeCount() / BULK_REBUILD) {
+      int changed = 0;
+      for (Edge<T> edge : removed) {
+        if (removeEdge(edge.getSource(), edge.getDestination())) {
+          changed++;
+        }
+      }
+      for (Edge<T> edge : added) {
+        if (addEdge(edge.getSource(), edge.getDestination())) {
+          changed++;
+        }
+      }
+      return changed;
+    }
+
+    // Copy the edges that are not removed, then the added edges, and index them all again
+    EdgeKeySet removedKeys = new EdgeKeySet(removed.size());
+    for (Edge<T> edge : removed) {
+      int source = verticies.indexOf(edge.getSource());
+      int destination = verticies.indexOf(edge.getDestination());
+      if (source >= 0 && destination >= 0) {
+        removedKeys.add(source, destination);
+      }
+    }
+    int before = getEdgeCount();
+    EdgeStore edges = new EdgeStore(before + added.size());
+    for (int source = 0; source < verticies.size(); source++) {
+      for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+        if (!removedKeys.contains(source, adjacency.target(i))) {
+          edges.add(source, adjacency.target(i));
+        }
+      }
+    }
+    int kept = edges.size();
+    for (Edge<T> edge : added) {
+      edges.add(verticies.add(edge.getSource()), verticies.add(edge.getDestination()));
+    }
+    index(edges, verticies.sort());
+
+    transpose = null;
+    counts = null;
+    checker = null;
+    reachability = null;
+    clearCachedResults();
+    return (before - kept) + (getEdgeCount() - kept);
+  }
+
+  /**
+   * Adds an edge between two verticies of the graph, and updates everything that depends on it.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was not already in the graph
+   */
+  private boolean addEdge(int source, int destination) {
+    if (hasEdge(source, destination)) {
+      return false;
+    }
+    // The counts are built before the change, so they only see it once
+    PropertyCounts counts = getCounts();
+    counts.adding(source, destination);
+    edgeKeys.add(source, destination);
+    adjacency.insert(source, destination);
+    // The counts need the in-coming edges, so the transpose is always built by now
+    transpose.insert(destination, source);
+    outDegree[source]++;
+    inDegree[destination]++;
+    counts.added(source, destination);
+    edgesChanged();
+    return true;
+  }
+
+  /**
+   * Removes an edge between two verticies of the graph, and updates everything that depends on it.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @return true if the edge was in the graph
+   */
+  private boolean removeEdge(int source, int destination) {
+    if (!hasEdge(source, destination)) {
+      return false;
+    }
+    PropertyCounts counts = getCounts();
+    counts.removing(source, destination);
+    edgeKeys.remove(source, destination);
+    adjacency.remove(source, destination);
+    transpose.remove(destination, source);
+    outDegree[source]--;
+    inDegree[destination]--;
+    counts.removed(source, destination);
+    edgesChanged();
+    return true;
+  }
+
+  /**
+   * Updates the cached properties after an edge is added or removed, reading each of them from the
+   * counts, so no check has to run again while the graph is being changed.
+   */
+  private void edgesChanged() {
+    boolean reflexive = counts.isReflexive(verticies.size());
+    boolean symmetric = counts.isSymmetric();
+    boolean transitive = counts.isTransitive();
+    properties.put(Property.REFLEXIVE, reflexive);
+    properties.put(Property.SYMMETRIC, symmetric);
+    properties.put(Property.TRANSITIVE, transitive);
+    properties.put(Property.ANTI_SYMMETRIC, counts.isAntiSymmetric());
+    properties.put(Property.EQUIVALENCE, reflexive && symmetric && transitive);
+    partition = null;
+    reachability = null;
+  }
+
+  /**
+   * Gets the counts of the properties, counting them the first time the graph changes. Counting
+   * the violating triples takes as long as a transitivity check that does not stop early, but
+   * after that each change only costs time in proportion to the degrees of its verticies.
+   *
+   * @return the property counts
+   */
+  private PropertyCounts getCounts() {
+    if (counts == null) {
+      counts = new PropertyCounts(adjacency, getTranspose(), edgeKeys);
+    }
+    return counts;
+  }
+
+  /**
+   * Gets the index of the in-coming edges, building it the first time it is needed.
+   *
+   * @return the transpose of the adjacency index
+   */
+  private AdjacencyIndex getTranspose() {
+    if (transpose == null) {
+      transpose = adjacency.transpose();
+    }
+    return transpose;
   }
 
   /**
    * This method finds the set of verticies that are roots in the graph.
    *
-   * @return The set of verticies that are roots in the graph.
+   * @return The set of verticies that are roots in the graph, in ascending order.
    */
   public Set<T> getRoots() {
-    Set<T> roots = new HashSet<T>();
+    Set<T> roots = new LinkedHashSet<T>();
+    for (int root : findRoots()) {
+      roots.add(verticies.get(root));
+    }
+    return roots;
+  }
+
+  /**
+   * Finds the indicies of the root verticies in ascending order.
+   *
+   * @return a list of the indicies of the roots
+   */
+  private List<Integer> findRoots() {
+    List<Integer> roots = new ArrayList<Integer>();
     if (isEquivalence()) {
-      // Find the equivalence class of the vertex
-      Set<T> equivalenceClass;
-      for (T vertex : verticies) {
-        equivalenceClass = getEquivalenceClass(vertex);
-
-        // If the equivalence class contains more than one node, the node with the minimum value is
-        // returned.
-        if (equivalenceClass.size() >= 1) {
-          // Find the minimum value
-          T minimum = vertex;
-          for (T vertex2 : equivalenceClass) {
-            if (vertex2.compareTo(minimum) < 0) {
-              minimum = vertex2;
-            }
-          }
-          // Add the minimum value to the set
-          roots.add(minimum);
-        }
+      // The root of each equivalence class is its minimum, the classes are numbered in the order of
+      // their minimum so the roots are already sorted
+      EquivalencePartition partition = getPartition();
+      for (int c = 0; c < partition.classCount(); c++) {
+        roots.add(partition.minimum(c));
       }
     } else {
-      for (T vertex : verticies) {
-        // Assume it is not a root
-        boolean root = false;
-        for (Edge<T> edge : edges) {
-          // If the in degree is not equal to the vertice and the out degree is equal to the vertice
-          // then it is a root
-          if ((edge.getSource() == vertex)) {
-            root = true;
-          }
-          if (edge.getDestination() == vertex) {
-            root = false;
-            // Break the loop once a case is found where the in degree is equal to the vertex
-            break;
-          }
-        }
-        // If it is a root then add it to the set
-        if (root == true) {
+      for (int vertex = 0; vertex < verticies.size(); vertex++) {
+        // A root has no edges entering it and at least one edge leaving it
+        if (inDegree[vertex] == 0 && outDegree[vertex] > 0) {
           roots.add(vertex);
         }
       }
@@ -98,24 +611,17 @@ public class Graph<T extends Comparable<T>> {
    * @return boolean, true if it is reflexive
    */
   public boolean isReflexive() {
-    // For the set vertice, if in the set of edges the in and out degree is to the same vertice then
-    // this means that it is reflexive.
-    for (T vertex : verticies) {
-      // Assume it is not reflexive
-      boolean reflexive = false;
-      for (Edge<T> edge : edges) {
-        // If the source and destination are the same then it is reflexive
-        if ((edge.getSource() == vertex) && (edge.getDestination() == vertex)) {
-          reflexive = true;
-        }
-      }
-      // If it is not reflexive then return false
-      if (!reflexive) {
-        return false;
-      }
-    }
+    return properties.get(Property.REFLEXIVE, () -> getChecker().check(this::isReflexive));
+  }
 
-    return true;
+  /**
+   * Checks that a vertex has an edge to itself.
+   *
+   * @param vertex the index of the vertex
+   * @return true if the vertex has an edge to itself
+   */
+  private boolean isReflexive(int vertex) {
+    return hasEdge(vertex, vertex);
   }
 
   /**
@@ -124,21 +630,21 @@ public class Graph<T extends Comparable<T>> {
    * @return a boolean, true if the graph is symmetric
    */
   public boolean isSymmetric() {
+    return properties.get(Property.SYMMETRIC, () -> getChecker().check(this::isSymmetric));
+  }
+
+  /**
+   * Checks that every edge leaving a vertex has a reverse edge.
+   *
+   * @param source the index of the source vertex
+   * @return true if no reverse edge is missing
+   */
+  private boolean isSymmetric(int source) {
     // For the set of edges, if the source points to the destination and the destination points to
     // the source, it is symmetric.
-    for (Edge<T> edge : edges) {
-      // Assume it is not symmetric
-      boolean symmetric = false;
-      for (Edge<T> edge2 : edges) {
-        // If the source points to the destination and the destination points to the source, it is
-        // symmetric.
-        if ((edge.getSource() == edge2.getDestination())
-            && (edge.getDestination() == edge2.getSource())) {
-          symmetric = true;
-        }
-      }
-      // If it is not symmetric then return false
-      if (!symmetric) {
+    for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+      // If the reverse edge is missing then it is not symmetric
+      if (!hasEdge(adjacency.target(i), source)) {
         return false;
       }
     }
@@ -151,26 +657,32 @@ public class Graph<T extends Comparable<T>> {
    * @return a boolean, true if the graph is transitive
    */
   public boolean isTransitive() {
-    // For the set of edges, if If A->B and B->C then A->C, use isTransitive to find if this is
-    // true.
-    for (Edge<T> edge : edges) {
-      for (Edge<T> edge2 : edges) {
-        if (edge.getDestination() == edge2.getSource()) {
-          // Find if an edge exists that connects edgesource and edge2destination does not exist
-          boolean transitive = false;
-          for (Edge<T> edge3 : edges) {
-            // If the edge3 source and edge source are the same and the edge3 destination and edge2
-            // destination are the same then it is transitive
-            if (edge3.getSource() == edge.getSource()
-                && edge3.getDestination() == edge2.getDestination()) {
-              transitive = true;
-              break;
-            }
-          }
-          // If it is not transitive then return false
-          if (!transitive) {
-            return false;
-          }
+    // For every A->B and B->C there must be A->C, so each destination of a destination of A must
+    // be a destination of A.
+    return properties.get(Property.TRANSITIVE, () -> getChecker().check(this::isTransitive, true));
+  }
+
+  /**
+   * Checks that the two step paths starting at a vertex all have a direct edge. The destinations
+   * of the source are stamped into the marks array, so each check of A->C is a single array lookup
+   * and the whole check costs the sum of the squared out degrees at worst.
+   *
+   * @param source the index of the source vertex
+   * @param marks an array with an entry for every vertex, used to stamp the destinations
+   * @return true if no missing edge A->C is found
+   */
+  private boolean isTransitive(int source, int[] marks) {
+    // Stamp the destinations of the source, source + 1 is used so the array can start zeroed
+    int stamp = source + 1;
+    for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+      marks[adjacency.target(i)] = stamp;
+    }
+    for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+      int middle = adjacency.target(i);
+      for (int j = adjacency.start(middle); j < adjacency.end(middle); j++) {
+        // If the edge source -> destination is missing then it is not transitive
+        if (marks[adjacency.target(j)] != stamp) {
+          return false;
         }
       }
     }
@@ -183,19 +695,24 @@ public class Graph<T extends Comparable<T>> {
    * @return a boolean, true if the graph is anti symmetric
    */
   public boolean isAntiSymmetric() {
+    return properties.get(
+        Property.ANTI_SYMMETRIC, () -> getChecker().check(this::isAntiSymmetric));
+  }
+
+  /**
+   * Checks that no edge leaving a vertex to another vertex has a reverse edge.
+   *
+   * @param source the index of the source vertex
+   * @return true if no reverse edge is found
+   */
+  private boolean isAntiSymmetric(int source) {
     // For the set of edges, if A-->B and B-->A then A==B, use isAntiSymmetric to find if this is
     // true.
-    for (Edge<T> edge : edges) {
-      for (Edge<T> edge2 : edges) {
-        // If the edge source and edge2 destination are the same and the edge destination and edge2
-        // source are the same then do the next check
-        if (edge.getDestination() == edge2.getSource()
-            && (edge2.getDestination() == edge.getSource())) {
-          // If the source and destination are the same then it is anti symmetric
-          if (edge.getSource() != edge.getDestination()) {
-            return false;
-          }
-        }
+    for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+      // If the source and destination are different and the reverse edge exists then it is not
+      // anti symmetric
+      if (adjacency.target(i) != source && hasEdge(adjacency.target(i), source)) {
+        return false;
       }
     }
     return true;
@@ -207,127 +724,284 @@ public class Graph<T extends Comparable<T>> {
    * @return a boolean, true if the graph is an equivalence relation
    */
   public boolean isEquivalence() {
-    if (isReflexive() && isSymmetric() && isTransitive()) {
-      return true;
+    return properties.get(Property.EQUIVALENCE, this::checkEquivalence);
+  }
+
+  /** Computes if the graph is an equivalence relation from the cached properties. */
+  private boolean checkEquivalence() {
+    PropertyChecker checker = getChecker();
+    if (!checker.isParallel()) {
+      return isReflexive() && isSymmetric() && isTransitive();
+    }
+
+    // Check the three properties at the same time, and stop all of them once any of them fails
+    AtomicBoolean violated = new AtomicBoolean();
+    checker.runAll(
+        () -> checkConcurrently(Property.REFLEXIVE, (v, marks) -> isReflexive(v), violated),
+        () -> checkConcurrently(Property.SYMMETRIC, (v, marks) -> isSymmetric(v), violated),
+        () -> checkConcurrently(Property.TRANSITIVE, this::isTransitive, violated));
+    return !violated.get();
+  }
+
+  /**
+   * Checks a property alongside other properties, and caches the result unless the check was
+   * stopped early because another property failed first.
+   *
+   * @param property the property to check
+   * @param check the test of each source vertex
+   * @param violated the flag that is set once any of the properties fails
+   */
+  private void checkConcurrently(
+      Property property, PropertyChecker.VertexCheck check, AtomicBoolean violated) {
+    Boolean cached = properties.get(property);
+    if (cached != null) {
+      if (!cached) {
+        violated.set(true);
+      }
+      return;
+    }
+    Boolean result = getChecker().check(check, property == Property.TRANSITIVE, violated);
+    // The result is unknown if the check was stopped by another property
+    if (result != null) {
+      properties.put(property, result);
+    }
+  }
+
+  /**
+   * Gets the checker that runs the property checks, creating it the first time it is needed.
+   *
+   * @return the property checker
+   */
+  private PropertyChecker getChecker() {
+    // The checks split the verticies by the positions of their rows, so the rows must be in order
+    if (!adjacency.isOrdered()) {
+      adjacency.compact();
+    }
+    if (checker == null) {
+      checker = new PropertyChecker(adjacency, pool);
     }
-    return false;
+    return checker;
   }
 
   /**
    * This method will find the equivalence class of a vertex.
    *
    * @param vertex an object of type T, a vertex in the graph
-   * @return a set of type T, the equivalence class of the vertex
+   * @return a set of type T, the equivalence class of the vertex in ascending order
    */
   public Set<T> getEquivalenceClass(T vertex) {
     // Find the equivalence class of the vertex
-    Set<T> equivalenceClass = new HashSet<T>();
+    Set<T> equivalenceClass = new LinkedHashSet<T>();
     // Check if the vertex is reflexive
     if (isEquivalence()) {
-      equivalenceClass.add(vertex);
-      // If it is reflexive then check the destination edges from the vertex as the source and add
-      // them to the equivalence class
-      for (Edge<T> edge : edges) {
-        if (edge.getSource().equals(vertex)) {
-          equivalenceClass.add(edge.getDestination());
-        } else if (edge.getDestination().equals(vertex)) {
-          equivalenceClass.add(edge.getSource());
-        }
+      int index = verticies.indexOf(vertex);
+      if (index < 0) {
+        // A vertex that is not in the graph is only equivalent to itself
+        equivalenceClass.add(vertex);
+        return equivalenceClass;
+      }
+      // The members of the vertex's class are stored in ascending order in the partition
+      EquivalencePartition partition = getPartition();
+      int c = partition.classOf(index);
+      for (int i = partition.start(c); i < partition.end(c); i++) {
+        equivalenceClass.add(verticies.get(partition.member(i)));
       }
     }
     return equivalenceClass;
   }
 
+  /**
+   * Checks if the reachability index has been built since the graph last changed, so a query
+   * would not have to build it first.
+   *
+   * @return true if the index is built
+   */
+  public boolean hasReachabilityIndex() {
+    return reachability != null;
+  }
+
+  /**
+   * Gets the index of which verticies can reach each other, building it the first time. The index
+   * is thrown away whenever the graph changes, and built again by the next call.
+   *
+   * @param maxBytes the largest number of bytes the closure of the index may use
+   * @return the reachability index, or null if it would need more memory than the limit
+   */
+  public ReachabilityIndex<T> getReachabilityIndex(long maxBytes) {
+    if (reachability == null) {
+      reachability = ReachabilityIndex.build(verticies, adjacency, maxBytes);
+    }
+    return reachability;
+  }
+
+  /**
+   * Gets the partition of the verticies into equivalence classes, building it the first time. The
+   * graph must be an equivalence relation.
+   *
+   * @return the equivalence partition
+   */
+  private EquivalencePartition getPartition() {
+    if (partition == null) {
+      partition = new EquivalencePartition(adjacency);
+    }
+    return partition;
+  }
+
   /**
    * Method performs an iterative breadth first search on the graph.
    *
    * @return a list of type T, the nodes that have been visited in the order of the search method
    */
   public List<T> iterativeBreadthFirstSearch() {
-    // List for the nodes that have been visted
     List<T> visited = new ArrayList<T>();
+    iterativeBreadthFirstSearch(visited::add);
+    return visited;
+  }
+
+  /**
+   * Method performs an iterative breadth first search on the graph, passing each node to the
+   * visitor as soon as it is visited rather than collecting them.
+   *
+   * @param visitor the action to perform on each node in the order of the search method
+   */
+  public void iterativeBreadthFirstSearch(Consumer<? super T> visitor) {
+    // A bitmap to check if a node has been visited
+    VertexBitSet marked = new VertexBitSet(verticies.size());
     // Create a queue to keep track of the nodes
-    Queue<T> queue = new Queue<T>();
-    // getRoots and add these to the queue
-    List<T> roots = new ArrayList<T>(getRoots());
-    Collections.sort(roots, new ListComparator<>());
-    for (T root : roots) {
+    IntQueue queue = new IntQueue();
+    // getRoots and add these to the queue, the roots are already sorted
+    for (int root : findRoots()) {
+      marked.add(root);
       queue.enqueue(root);
     }
     while (!queue.isEmpty()) {
-      // Get the first element in the queue
-      T vertex = queue.dequeue();
-      // If the vertex has not been visited then add it to the visited list
-      if (!visited.contains(vertex)) {
-        visited.add(vertex);
-      }
-      List<T> orderedList = orderedEdgeList(vertex);
-      for (T destination : orderedList) {
-        // If the destination has not been visited then add it to the queue
-        if (!visited.contains(destination)) {
+      // Get the first element in the queue, nodes are only enqueued once so it is not visited yet
+      int vertex = queue.dequeue();
+      visitor.accept(verticies.get(vertex));
+      for (int i = adjacency.start(vertex); i < adjacency.end(vertex); i++) {
+        int destination = adjacency.target(i);
+        // If the destination has not been seen then mark it and add it to the queue
+        if (marked.add(destination)) {
           queue.enqueue(destination);
         }
       }
     }
+  }
 
+  /**
+   * Performs a breadth first search that expands each level of the search in parallel. The order
+   * is the same as {@link #iterativeBreadthFirstSearch()}.
+   *
+   * @return a list of type T, the nodes that have been visited in the order of the search method
+   */
+  public List<T> parallelBreadthFirstSearch() {
+    List<T> visited = new ArrayList<T>(verticies.size());
+    parallelBreadthFirstSearch(visited::add);
     return visited;
   }
 
+  /**
+   * Performs a breadth first search that expands each level of the search in parallel, passing
+   * each node to the visitor in the same order as {@link #iterativeBreadthFirstSearch()}.
+   *
+   * @param visitor the action to perform on each node in the order of the search method
+   */
+  public void parallelBreadthFirstSearch(Consumer<? super T> visitor) {
+    List<Integer> roots = findRoots();
+    int[] rootIndicies = new int[roots.size()];
+    for (int i = 0; i < rootIndicies.length; i++) {
+      rootIndicies[i] = roots.get(i);
+    }
+
+    int[] order = new ParallelBreadthFirstSearch(adjacency, pool).search(rootIndicies);
+    for (int vertex : order) {
+      visitor.accept(verticies.get(vertex));
+    }
+  }
+
+  /**
+   * Finds the level of every vertex that can be reached from the roots, which is the length of the
+   * shortest path to it from any root. The search switches between scanning the out-going edges of
+   * each level and the in-coming edges of the unvisited verticies, whichever is cheaper.
+   *
+   * @return the levels of the search
+   */
+  public LevelSearch<T> levelSearch() {
+    return new LevelSearch<T>(verticies, adjacency, getTranspose(), findRoots());
+  }
+
   /**
    * Method performs an iterative depth first search on the graph.
    *
+   * <p>The stack only holds the path from the current root to the current node. Each node on the
+   * stack remembers the next of its destinations to try, so every node is pushed once and the order
+   * is the same as pushing all of the destinations in reverse.
+   *
    * @return a list of type T, the nodes that have been visited in the order of the search method
    */
   public List<T> iterativeDepthFirstSearch() {
-    // Use iterative Depth First Search method to go through the graph
-    // List for the nodes that have been visted
     List<T> visited = new ArrayList<T>();
+    iterativeDepthFirstSearch(visited::add);
+    return visited;
+  }
+
+  /**
+   * Method performs an iterative depth first search on the graph, passing each node to the visitor
+   * as soon as it is visited rather than collecting them.
+   *
+   * @param visitor the action to perform on each node in the order of the search method
+   */
+  public void iterativeDepthFirstSearch(Consumer<? super T> visitor) {
+    // Use iterative Depth First Search method to go through the graph
+    // A bitmap to check if a node has been visited
+    VertexBitSet marked = new VertexBitSet(verticies.size());
+    // The position of the next destination to try for each node on the stack
+    int[] next = new int[verticies.size()];
     // Create a stack to keep track of the nodes
-    Stack<T> stack = new Stack<T>();
-    // getRoots and add these to the stack
-    List<T> roots = new ArrayList<T>(getRoots());
-    Collections.sort(roots, new ListComparator<>());
-    Collections.reverse(roots);
-    for (T root : roots) {
-      stack.push(root);
-      // add
-    }
-    while (!stack.isEmpty()) {
-      // Get the first element in the stack
-      T vertex = stack.pop();
-      // If the vertex has not been visited then add it to the visited list
-      if (!visited.contains(vertex)) {
-        visited.add(vertex);
+    IntStack stack = new IntStack();
+    // Search from each root in ascending order
+    for (int root : findRoots()) {
+      if (!marked.add(root)) {
+        continue;
       }
-      List<T> orderedList = orderedEdgeList(vertex);
-      Collections.reverse(orderedList);
-      for (T destination : orderedList) {
-        // If the destination has not been visited then add it to the stack
-        if (!visited.contains(destination)) {
+      visitor.accept(verticies.get(root));
+      next[root] = adjacency.start(root);
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        int vertex = stack.peek();
+        if (next[vertex] == adjacency.end(vertex)) {
+          // All destinations have been tried, so go back to the previous node
+          stack.pop();
+          continue;
+        }
+        int destination = adjacency.target(next[vertex]++);
+        // If the destination has not been visited then visit it and continue from it
+        if (marked.add(destination)) {
+          visitor.accept(verticies.get(destination));
+          next[destination] = adjacency.start(destination);
           stack.push(destination);
         }
       }
     }
-
-    return visited;
   }
 
   /**
-   * Method takes in a vertex and returns a list of the vertices that are connected to it after
-   * sorting them.
+   * Method takes in a vertex and returns a list of the vertices that are connected to it in sorted
+   * order.
    *
    * @param vertex an object of type T, a vertex in the graph
    * @return a list of type T, the sorted vertices that are connected to the vertex
    */
   public List<T> orderedEdgeList(T vertex) {
     List<T> destinations = new ArrayList<T>();
-    for (Edge<T> edge : edges) {
-      if (edge.getSource().equals(vertex)) {
-        destinations.add(edge.getDestination());
-      }
+    int index = verticies.indexOf(vertex);
+    if (index < 0) {
+      return destinations;
+    }
+    // The row of the vertex is already sorted, so the destinations are read in order
+    for (int i = adjacency.start(index); i < adjacency.end(index); i++) {
+      destinations.add(verticies.get(adjacency.target(i)));
     }
-    // Sort the list
-    Collections.sort(destinations, new ListComparator<>());
     return destinations;
   }
 
@@ -337,46 +1011,58 @@ public class Graph<T extends Comparable<T>> {
    * @return a list of type T, the nodes that have been visited in the order of the search method
    */
   public List<T> recursiveBreadthFirstSearch() {
-    // List for the nodes that have been visted
     List<T> visited = new ArrayList<T>();
+    recursiveBreadthFirstSearch(visited::add);
+    return visited;
+  }
+
+  /**
+   * Method performs a recursive breadth first search on the graph, passing each node to the
+   * visitor as soon as it is visited rather than collecting them.
+   *
+   * @param visitor the action to perform on each node in the order of the search method
+   */
+  public void recursiveBreadthFirstSearch(Consumer<? super T> visitor) {
+    // A bitmap to check if a node has been visited
+    VertexBitSet marked = new VertexBitSet(verticies.size());
     // Create a queue to keep track of the nodes
-    Queue<T> queue = new Queue<T>();
-    // getRoots and add these to the queue
-    List<T> roots = new ArrayList<T>(getRoots());
-    Collections.sort(roots, new ListComparator<>());
-    for (T root : roots) {
+    IntQueue queue = new IntQueue();
+    // getRoots and add these to the queue, the roots are already sorted
+    for (int root : findRoots()) {
+      marked.add(root);
       queue.enqueue(root);
     }
-    System.out.println("QUEUE " + queue);
     // Call the recursiveBreadthFirstSearchHelper method
-    recursiveBreadthFirstSearchHelper(queue, visited);
-    return visited;
+    trampoline(recursiveBreadthFirstSearchHelper(queue, marked, visitor));
   }
 
   /**
    * Method is a helper method for the recursiveBreadthFirstSearch method.
    *
-   * @param queue a queue of type T, the queue of vertices
-   * @param visited a list of type T, the list of visited vertices
+   * @param queue a queue of vertex indicies
+   * @param marked the verticies that have been added to the queue
+   * @param visitor the action to perform on each visited vertex
+   * @return the recursive call, or null if the search has finished
    */
-  private void recursiveBreadthFirstSearchHelper(Queue<T> queue, List<T> visited) {
+  private Continuation recursiveBreadthFirstSearchHelper(
+      IntQueue queue, VertexBitSet marked, Consumer<? super T> visitor) {
     // If the queue is empty then return
     if (queue.isEmpty()) {
-      return;
+      return null;
     }
     // Get the first element in the queue and dequeue it
-    T vertex = queue.dequeue();
-    if (!visited.contains(vertex)) {
-      visited.add(vertex);
-    } // The desintation will be ordered with the orderedEdgeList method
-    for (T destination : orderedEdgeList(vertex)) {
-      // If the vertex has not been visited then add it to the visited list and add it to the queue
-      if (!visited.contains(destination)) {
+    int vertex = queue.dequeue();
+    visitor.accept(verticies.get(vertex));
+    // The desintations are read in order from the adjacency index
+    for (int i = adjacency.start(vertex); i < adjacency.end(vertex); i++) {
+      int destination = adjacency.target(i);
+      // If the vertex has not been seen then mark it and add it to the queue
+      if (marked.add(destination)) {
         queue.enqueue(destination);
       }
     }
     // Call the recursiveBreadthFirstSearchHelper method recursively
-    recursiveBreadthFirstSearchHelper(queue, visited);
+    return () -> recursiveBreadthFirstSearchHelper(queue, marked, visitor);
   }
 
   /**
@@ -385,49 +1071,78 @@ public class Graph<T extends Comparable<T>> {
    * @return a list of type T, the nodes that have been visited in the order of the search method
    */
   public List<T> recursiveDepthFirstSearch() {
-    // Use recursive Depth First Search method to go through the graph
-    // List for the nodes that have been visted
     List<T> visited = new ArrayList<T>();
+    recursiveDepthFirstSearch(visited::add);
+    return visited;
+  }
+
+  /**
+   * Method performs a recursive depth first search on the graph, passing each node to the visitor
+   * as soon as it is visited rather than collecting them.
+   *
+   * @param visitor the action to perform on each node in the order of the search method
+   */
+  public void recursiveDepthFirstSearch(Consumer<? super T> visitor) {
+    // Use recursive Depth First Search method to go through the graph
+    // A bitmap to check if a node has been visited
+    VertexBitSet marked = new VertexBitSet(verticies.size());
+    // The position of the next destination to try for each node on the stack
+    int[] next = new int[verticies.size()];
     // Create a stack to keep track of the nodes
-    Stack<T> stack = new Stack<T>();
-    List<T> roots = new ArrayList<T>(getRoots());
-    Collections.sort(roots, new ListComparator<>());
-    Collections.reverse(roots);
-    for (T root : roots) {
-      stack.push(root);
-      // add
+    IntStack stack = new IntStack();
+    // Search from each root in ascending order
+    for (int root : findRoots()) {
+      if (marked.add(root)) {
+        visitor.accept(verticies.get(root));
+        next[root] = adjacency.start(root);
+        stack.push(root);
+        // Call the recursiveDepthFirstSearchHelper method
+        trampoline(recursiveDepthFirstSearchHelper(stack, next, marked, visitor));
+      }
     }
-    // Call the recursiveDepthFirstSearchHelper method
-    recursiveDepthFirstSearchHelper(stack, visited);
-    return visited;
   }
 
   /**
-   * Method is a helper method for the recursiveDepthFirstSearch method.
+   * Method is a helper method for the recursiveDepthFirstSearch method. Each call tries the next
+   * destination of the node on top of the stack.
    *
-   * @param stack a stack of type T, the stack of vertices
-   * @param visited a list of type T, the list of visited vertices
+   * @param stack a stack of vertex indicies
+   * @param next the position of the next destination to try for each node on the stack
+   * @param marked the verticies that have been visited
+   * @param visitor the action to perform on each visited vertex
+   * @return the recursive call, or null if the search has finished
    */
-  private void recursiveDepthFirstSearchHelper(Stack<T> stack, List<T> visited) {
+  private Continuation recursiveDepthFirstSearchHelper(
+      IntStack stack, int[] next, VertexBitSet marked, Consumer<? super T> visitor) {
     // If the stack is empty then return
     if (stack.isEmpty()) {
-      return;
+      return null;
     }
-    // Get the first element in the stack and pop it
-    T vertex = stack.pop();
-    // If the vertex has not been visited then add it to the visited list
-    if (!visited.contains(vertex)) {
-      visited.add(vertex);
-    }
-    List<T> orderedList = orderedEdgeList(vertex);
-    Collections.reverse(orderedList);
-    for (T destination : orderedList) {
-      // If the destination has not been visited then add it to the stack
-      if (!visited.contains(destination)) {
+    int vertex = stack.peek();
+    if (next[vertex] == adjacency.end(vertex)) {
+      // All destinations have been tried, so go back to the previous node
+      stack.pop();
+    } else {
+      int destination = adjacency.target(next[vertex]++);
+      // If the destination has not been visited then visit it and continue from it
+      if (marked.add(destination)) {
+        visitor.accept(verticies.get(destination));
+        next[destination] = adjacency.start(destination);
         stack.push(destination);
       }
     }
     // Call the recursiveDepthFirstSearchHelper method recursively
-    recursiveDepthFirstSearchHelper(stack, visited);
+    return () -> recursiveDepthFirstSearchHelper(stack, next, marked, visitor);
+  }
+
+  /**
+   * Runs the calls of a recursive helper until it finishes.
+   *
+   * @param call the first call of the recursive helper
+   */
+  private static void trampoline(Continuation call) {
+    while (call != null) {
+      call = call.resume();
+    }
   }
 }
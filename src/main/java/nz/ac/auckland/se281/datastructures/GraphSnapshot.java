@@ -0,0 +1,276 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A compact binary copy of a loaded graph, saved next to the DOT file it was read from. Reopening a
+ * snapshot maps the file into memory and copies the sorted adjacency arrays out in bulk, so none of
+ * the text has to be parsed or sorted again.
+ *
+ * <p>The snapshot is laid out as follows, with every number big endian:
+ *
+ * <ul>
+ *   <li>a header of the magic number, the format version, the size and last modified time of the
+ *       DOT file, and the number of verticies and edges
+ *   <li>the symbol table, each vertex id in vertex order as its length in bytes and its UTF-8
+ *       bytes, padded to a multiple of 4 bytes
+ *   <li>the offsets of the adjacency index, one more than the number of verticies
+ *   <li>the destinations of the adjacency index, one for each edge
+ *   <li>1 if the reachability index was built when the snapshot was saved, otherwise 0
+ *   <li>if it was, the number of components, the component of each vertex, padding to a multiple
+ *       of 8 bytes, and the words of the closure
+ *   <li>a CRC-32C checksum of everything before it
+ * </ul>
+ *
+ * <p>A snapshot whose checksum does not match is never read, so the DOT file is loaded instead.
+ */
+public class GraphSnapshot {
+
+  /** The extension added to the name of the DOT file to name its snapshot. */
+  public static final String EXTENSION = ".snapshot";
+
+  private static final int MAGIC = 0x47534E50;
+  private static final int VERSION = 3;
+
+  private GraphSnapshot() {}
+
+  /**
+   * Gets the path of the snapshot of a DOT file, which is saved next to it.
+   *
+   * @param source the path of the DOT file
+   * @return the path of the snapshot
+   */
+  public static Path pathOf(Path source) {
+    return source.resolveSibling(source.getFileName() + EXTENSION);
+  }
+
+  /**
+   * Saves a snapshot of a graph that was loaded from a DOT file. The snapshot is written to a
+   * temporary file first and then moved into place, so a half written snapshot is never read.
+   *
+   * <p>The size and time given must be the ones the file had when the graph was loaded, so a
+   * snapshot of a file that has changed since then does not match it.
+   *
+   * @param graph the graph that was loaded from the file
+   * @param source the path of the DOT file
+   * @param size the size of the DOT file when the graph was loaded
+   * @param modified the last modified time of the DOT file when the graph was loaded
+   * @return the path of the snapshot
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static Path write(Graph<String> graph, Path source, long size, FileTime modified)
+      throws IOException {
+    final Path snapshot = pathOf(source);
+    final Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    final VertexTable<String> verticies = graph.getVertexTable();
+    final AdjacencyIndex adjacency = graph.getAdjacency();
+    final CRC32C checksum = new CRC32C();
+
+    try (DataOutputStream out =
+        new DataOutputStream(
+            new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), checksum))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(size);
+      out.writeLong(modified.toMillis());
+      out.writeInt(verticies.size());
+      out.writeInt(adjacency.edgeCount());
+
+      for (int vertex = 0; vertex < verticies.size(); vertex++) {
+        final byte[] id = verticies.get(vertex).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(id.length);
+        out.write(id);
+      }
+      // Pad so the adjacency arrays start on a 4 byte boundary
+      while (out.size() % Integer.BYTES != 0) {
+        out.writeByte(0);
+      }
+
+      // The rows may have space between them, so the offsets are counted from the degrees
+      int offset = 0;
+      for (int vertex = 0; vertex < verticies.size(); vertex++) {
+        out.writeInt(offset);
+        offset += adjacency.degree(vertex);
+      }
+      out.writeInt(adjacency.edgeCount());
+      for (int vertex = 0; vertex < verticies.size(); vertex++) {
+        for (int i = adjacency.start(vertex); i < adjacency.end(vertex); i++) {
+          out.writeInt(adjacency.target(i));
+        }
+      }
+
+      final ReachabilityIndex<String> reachability = graph.getBuiltReachabilityIndex();
+      out.writeInt(reachability == null ? 0 : 1);
+      if (reachability != null) {
+        out.writeInt(reachability.getComponentCount());
+        for (int component : reachability.getComponents()) {
+          out.writeInt(component);
+        }
+        while (out.size() % Long.BYTES != 0) {
+          out.writeByte(0);
+        }
+        for (long word : reachability.getClosure()) {
+          out.writeLong(word);
+        }
+      }
+      out.writeInt((int) checksum.getValue());
+    }
+
+    Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING);
+    return snapshot;
+  }
+
+  /**
+   * Reads the snapshot of a DOT file, if there is one and the DOT file has not changed since it was
+   * saved.
+   *
+   * @param source the path of the DOT file
+   * @return the graph, or null if there is no usable snapshot
+   * @throws IOException if the snapshot cannot be read
+   */
+  public static Graph<String> read(Path source) throws IOException {
+    final Path snapshot = pathOf(source);
+    if (!Files.isRegularFile(snapshot)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      // The snapshot is only used if it was saved from the current version of the DOT file
+      if (buffer.getInt() != MAGIC
+          || buffer.getInt() != VERSION
+          || buffer.getLong() != Files.size(source)
+          || buffer.getLong() != Files.getLastModifiedTime(source).toMillis()) {
+        return null;
+      }
+      // Leave out the checksum at the end, which covers every byte before it
+      final int checked = buffer.capacity() - Integer.BYTES;
+      if (checked < buffer.position()) {
+        return null;
+      }
+      final CRC32C checksum = new CRC32C();
+      checksum.update(buffer.slice(0, checked));
+      if (buffer.getInt(checked) != (int) checksum.getValue()) {
+        return null;
+      }
+      buffer.limit(checked);
+
+      final int vertexCount = buffer.getInt();
+      final int edgeCount = buffer.getInt();
+      // The checks below keep a snapshot that was saved wrongly from being used, even though its
+      // checksum matches. Each vertex has at least its id length and offset, and each edge its
+      // destination, so a count that would not fit in the rest of the file is wrong
+      if (vertexCount < 0
+          || edgeCount < 0
+          || (2L * vertexCount + edgeCount + 1) * Integer.BYTES > buffer.remaining()) {
+        return null;
+      }
+
+      final VertexTable<String> verticies = new VertexTable<>();
+      byte[] id = new byte[64];
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+          return null;
+        }
+        if (length > id.length) {
+          id = new byte[Math.max(length, id.length * 2)];
+        }
+        buffer.get(id, 0, length);
+        verticies.add(new String(id, 0, length, StandardCharsets.UTF_8));
+      }
+      if (verticies.size() != vertexCount) {
+        // An id was repeated
+        return null;
+      }
+      buffer.position((buffer.position() + Integer.BYTES - 1) & -Integer.BYTES);
+
+      // Copy the adjacency arrays out of the mapped file in bulk
+      final IntBuffer ints = buffer.asIntBuffer();
+      final int[] offsets = new int[vertexCount + 1];
+      final int[] targets = new int[edgeCount];
+      ints.get(offsets);
+      ints.get(targets);
+      if (!isValid(offsets, targets)) {
+        return null;
+      }
+      final Graph<String> graph = new Graph<>(verticies, new AdjacencyIndex(offsets, targets));
+
+      buffer.position(buffer.position() + ints.position() * Integer.BYTES);
+      if (buffer.getInt() != 0) {
+        final int componentCount = buffer.getInt();
+        if (componentCount < 0
+            || componentCount > vertexCount
+            || (long) vertexCount * Integer.BYTES
+                    + ReachabilityIndex.closureWords(componentCount) * Long.BYTES
+                > buffer.remaining()) {
+          return null;
+        }
+        final int[] components = new int[vertexCount];
+        buffer.asIntBuffer().get(components);
+        for (final int component : components) {
+          if (component < 0 || component >= componentCount) {
+            return null;
+          }
+        }
+        buffer.position(buffer.position() + vertexCount * Integer.BYTES);
+        buffer.position((buffer.position() + Long.BYTES - 1) & -Long.BYTES);
+        final LongBuffer longs = buffer.asLongBuffer();
+        final long[] closure = new long[(int) ReachabilityIndex.closureWords(componentCount)];
+        longs.get(closure);
+        graph.setReachabilityIndex(
+            new ReachabilityIndex<>(verticies, components, componentCount, closure));
+      }
+      return graph;
+    } catch (BufferUnderflowException e) {
+      // The snapshot was cut short, so the DOT file is read instead
+      return null;
+    }
+  }
+
+  /**
+   * Checks that the adjacency arrays read from a snapshot make a valid index, so a corrupted
+   * snapshot is not used. The offsets must start at 0, never decrease and end at the number of
+   * edges, and each row must be strictly ascending destinations of verticies in the graph.
+   *
+   * @param offsets the start of each row, followed by the number of edges
+   * @param targets the destinations of every row
+   * @return true if the arrays are valid
+   */
+  private static boolean isValid(final int[] offsets, final int[] targets) {
+    final int vertexCount = offsets.length - 1;
+    if (offsets[0] != 0 || offsets[vertexCount] != targets.length) {
+      return false;
+    }
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      if (offsets[vertex] > offsets[vertex + 1] || offsets[vertex + 1] > targets.length) {
+        return false;
+      }
+      int previous = -1;
+      for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+        if (targets[i] <= previous || targets[i] >= vertexCount) {
+          return false;
+        }
+        previous = targets[i];
+      }
+    }
+    return true;
+  }
+}
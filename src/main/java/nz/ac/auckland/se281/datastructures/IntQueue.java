@@ -0,0 +1,53 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A First In First Out (FIFO) queue of int values, stored in a growable circular array so that the
+ * values are never boxed.
+ */
+public class IntQueue {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  // The capacity is always a power of two so positions can wrap around with a mask
+  private int[] elements = new int[DEFAULT_CAPACITY];
+  private int head;
+  private int size;
+
+  // Add a new element to the end of the queue
+  public void enqueue(int element) {
+    if (size == elements.length) {
+      int[] grown = Arrays.copyOfRange(elements, head, head + elements.length * 2);
+      System.arraycopy(elements, 0, grown, elements.length - head, head);
+      elements = grown;
+      head = 0;
+    }
+    elements[(head + size) & (elements.length - 1)] = element;
+    size++;
+  }
+
+  /**
+   * Removes the element at the front of the queue.
+   *
+   * @return the element at the front of the queue
+   * @throws IllegalStateException if the queue is empty
+   */
+  public int dequeue() {
+    if (size == 0) {
+      throw new IllegalStateException("The queue is empty");
+    }
+    int value = elements[head];
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+}
@@ -0,0 +1,57 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A Last In First Out (LIFO) stack of int values, stored in a growable array so that the values are
+ * never boxed.
+ */
+public class IntStack {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements = new int[DEFAULT_CAPACITY];
+  private int size;
+
+  // Adds the element to the top of the stack
+  public void push(int element) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, elements.length * 2);
+    }
+    elements[size++] = element;
+  }
+
+  /**
+   * Removes the element at the top of the stack.
+   *
+   * @return the element at the top of the stack
+   * @throws IllegalStateException if the stack is empty
+   */
+  public int pop() {
+    if (size == 0) {
+      throw new IllegalStateException("The stack is empty");
+    }
+    return elements[--size];
+  }
+
+  /**
+   * Gets the element at the top of the stack without removing it.
+   *
+   * @return the element at the top of the stack
+   * @throws IllegalStateException if the stack is empty
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new IllegalStateException("The stack is empty");
+    }
+    return elements[size - 1];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+}
@@ -0,0 +1,252 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The levels of a breadth first search from the roots of a graph, found with a direction
+ * optimizing search. The level of a vertex is the length of the shortest path to it from any root,
+ * and the order of the verticies within a level does not matter, so each step of the search can
+ * either go top down or bottom up.
+ *
+ * <p>A top down step scans the out-going edges of the frontier, and is cheapest while the frontier
+ * is small. A bottom up step scans the in-coming edges of each unvisited vertex until it finds a
+ * parent in the frontier, and is cheapest once the frontier is large, since most unvisited
+ * verticies find a parent after a few edges instead of the frontier scanning edges to verticies
+ * that are already visited.
+ *
+ * @param <T> The type of each vertex, that have a total ordering.
+ */
+public class LevelSearch<T extends Comparable<T>> {
+
+  /** The direction that a step of the search scans the edges in. */
+  public enum Direction {
+    TOP_DOWN("top-down"),
+    BOTTOM_UP("bottom-up");
+
+    private final String label;
+
+    private Direction(String label) {
+      this.label = label;
+    }
+
+    @Override
+    public String toString() {
+      return label;
+    }
+  }
+
+  // Go bottom up once the edges of the frontier are more than 1/ALPHA of the unexplored edges
+  private static final int ALPHA = 14;
+  // Go back top down once the frontier shrinks below 1/BETA of the verticies
+  private static final int BETA = 24;
+
+  private final VertexTable<T> verticies;
+  // The level of each vertex, or -1 if it cannot be reached from a root
+  private final int[] levels;
+  // The reached verticies grouped by level, in vertex order within each level
+  private final int[] members;
+  private final int[] levelStarts;
+  private final List<Direction> directions = new ArrayList<Direction>();
+
+  /**
+   * Searches the graph from the roots.
+   *
+   * @param verticies the symbol table of the verticies
+   * @param out the adjacency index of the out-going edges
+   * @param in the adjacency index of the in-coming edges
+   * @param roots the indicies of the roots, which make up the first level
+   */
+  LevelSearch(
+      VertexTable<T> verticies, AdjacencyIndex out, AdjacencyIndex in, List<Integer> roots) {
+    this.verticies = verticies;
+    final int vertexCount = verticies.size();
+    levels = new int[vertexCount];
+    Arrays.fill(levels, -1);
+
+    // The current level, and the level being found, swapped after each step
+    int[] frontier = new int[vertexCount];
+    int[] next = new int[vertexCount];
+    int size = 0;
+    // The edges leaving the verticies that have not been visited yet
+    long unexplored = out.edgeCount();
+    for (int root : roots) {
+      if (levels[root] < 0) {
+        levels[root] = 0;
+        frontier[size++] = root;
+        unexplored -= out.degree(root);
+      }
+    }
+
+    Direction direction = Direction.TOP_DOWN;
+    int previousSize = 0;
+    int reached = size;
+    for (int level = 0; size > 0; level++) {
+      direction = chooseDirection(direction, out, frontier, size, previousSize, unexplored);
+      directions.add(direction);
+      previousSize = size;
+
+      int nextSize = 0;
+      if (direction == Direction.TOP_DOWN) {
+        for (int f = 0; f < size; f++) {
+          final int vertex = frontier[f];
+          for (int i = out.start(vertex); i < out.end(vertex); i++) {
+            final int destination = out.target(i);
+            if (levels[destination] < 0) {
+              levels[destination] = level + 1;
+              next[nextSize++] = destination;
+            }
+          }
+        }
+      } else {
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+          if (levels[vertex] >= 0) {
+            continue;
+          }
+          // Stop at the first parent in the frontier, the rest of the edges are never scanned
+          for (int i = in.start(vertex); i < in.end(vertex); i++) {
+            if (levels[in.target(i)] == level) {
+              levels[vertex] = level + 1;
+              next[nextSize++] = vertex;
+              break;
+            }
+          }
+        }
+      }
+
+      for (int f = 0; f < nextSize; f++) {
+        unexplored -= out.degree(next[f]);
+      }
+      reached += nextSize;
+      final int[] swap = frontier;
+      frontier = next;
+      next = swap;
+      size = nextSize;
+    }
+
+    // Group the reached verticies by level with a counting sort, which keeps them in vertex order
+    levelStarts = new int[directions.size() + 1];
+    for (int level : levels) {
+      if (level >= 0) {
+        levelStarts[level + 1]++;
+      }
+    }
+    for (int level = 0; level < directions.size(); level++) {
+      levelStarts[level + 1] += levelStarts[level];
+    }
+    members = new int[reached];
+    final int[] position = levelStarts.clone();
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      if (levels[vertex] >= 0) {
+        members[position[levels[vertex]]++] = vertex;
+      }
+    }
+  }
+
+  /**
+   * Chooses the direction of the next step, using the heuristic of Beamer et al.
+   *
+   * @param current the direction of the last step
+   * @param out the adjacency index of the out-going edges
+   * @param frontier the verticies of the current level
+   * @param size the number of verticies in the frontier
+   * @param previousSize the number of verticies in the last frontier
+   * @param unexplored the number of edges leaving the verticies that are not visited yet
+   * @return the direction of the next step
+   */
+  private Direction chooseDirection(
+      Direction current,
+      AdjacencyIndex out,
+      int[] frontier,
+      int size,
+      int previousSize,
+      long unexplored) {
+    if (current == Direction.TOP_DOWN) {
+      long frontierEdges = 0;
+      for (int i = 0; i < size; i++) {
+        frontierEdges += out.degree(frontier[i]);
+      }
+      return frontierEdges > unexplored / ALPHA ? Direction.BOTTOM_UP : Direction.TOP_DOWN;
+    }
+    final boolean shrinking = size < previousSize;
+    return shrinking && size < verticies.size() / BETA ? Direction.TOP_DOWN : Direction.BOTTOM_UP;
+  }
+
+  /**
+   * Gets the number of levels, including the level of the roots.
+   *
+   * @return the number of levels
+   */
+  public int getLevelCount() {
+    return directions.size();
+  }
+
+  /**
+   * Gets the verticies of a level.
+   *
+   * @param level the level, where the roots are level 0
+   * @return the verticies of the level in ascending order
+   */
+  public List<T> getLevel(int level) {
+    final List<T> result = new ArrayList<T>(levelStarts[level + 1] - levelStarts[level]);
+    for (int i = levelStarts[level]; i < levelStarts[level + 1]; i++) {
+      result.add(verticies.get(members[i]));
+    }
+    return result;
+  }
+
+  /**
+   * Passes each vertex of a level to the action, without collecting them into a list.
+   *
+   * @param level the level, where the roots are level 0
+   * @param action the action to perform on each vertex of the level in ascending order
+   */
+  public void forEachInLevel(int level, Consumer<? super T> action) {
+    for (int i = levelStarts[level]; i < levelStarts[level + 1]; i++) {
+      action.accept(verticies.get(members[i]));
+    }
+  }
+
+  /**
+   * Gets the direction of the step that scanned the edges leaving a level.
+   *
+   * @param level the level, where the roots are level 0
+   * @return the direction of the step
+   */
+  public Direction getDirection(int level) {
+    return directions.get(level);
+  }
+
+  /**
+   * Gets the number of verticies that can be reached from the roots, including the roots.
+   *
+   * @return the number of reached verticies
+   */
+  public int getReachedCount() {
+    return members.length;
+  }
+
+  /**
+   * Checks if a vertex can be reached from a root.
+   *
+   * @param vertex the vertex to check
+   * @return true if the vertex is a root or can be reached from one
+   */
+  public boolean isReachable(T vertex) {
+    final int index = verticies.indexOf(vertex);
+    return index >= 0 && levels[index] >= 0;
+  }
+
+  /**
+   * Gets the level of a vertex.
+   *
+   * @param vertex the vertex to look up
+   * @return the length of the shortest path to the vertex from a root, or -1 if it is unreachable
+   */
+  public int getLevelOf(T vertex) {
+    final int index = verticies.indexOf(vertex);
+    return index < 0 ? -1 : levels[index];
+  }
+}
@@ -73,17 +73,25 @@ public class LinkedList<T> {
     if (head == null) {
       return null;
     }
+    // If the position is out of range, return null
+    if (pos < 0 || pos >= size) {
+      return null;
+    }
     // If the position is 0, return the value of the head
     nodeAtPosition = head;
     // Loops through the nodes until the position is reached
-    for (int i = 1; i < pos; i++) {
+    for (int i = 0; i < pos; i++) {
       nodeAtPosition = nodeAtPosition.getNext();
     }
     // Return the value of the node at the position
     return nodeAtPosition.getValue();
   }
 
-  /** This method removes a node at a given position. */
+  /**
+   * This method removes the first node of the list.
+   *
+   * @return The value of the removed node, or null if the list is empty
+   */
   public T removeHead() {
     // If there is no head, return null
     if (head == null) {
@@ -93,7 +101,9 @@ public class LinkedList<T> {
     if (head.getNext() != null) {
       head = head.getNext();
     } else {
+      // Release the last node so the empty list does not keep it alive
       head = null;
+      tail = null;
     }
     size--;
     return value;
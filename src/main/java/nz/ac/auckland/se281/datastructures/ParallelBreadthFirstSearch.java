@@ -0,0 +1,228 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A breadth first search that expands each level of the search on a fork join pool, and still
+ * visits the verticies in exactly the same order as the sequential search.
+ *
+ * <p>The sequential search visits a vertex of the next level after its first parent in the current
+ * level, and the children of one parent in ascending order. So while a level is expanded, each
+ * vertex remembers the smallest position of a parent that reached it, and the next level is sorted
+ * by that position and then by the vertex. The first thread to reach a vertex claims it in an
+ * atomic bitmap, so each vertex is added to a level only once.
+ */
+public class ParallelBreadthFirstSearch {
+
+  // The number of edges below which a level is expanded by a single task
+  private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+  // Split into more tasks than threads, so a thread that finishes early can steal the rest
+  private static final int TASKS_PER_THREAD = 8;
+  // The parent position of a vertex that was visited in an earlier level
+  private static final int VISITED = -1;
+
+  private final AdjacencyIndex adjacency;
+  private final ForkJoinPool pool;
+
+  // A bit for each vertex that has been added to a level
+  private final AtomicLongArray claimed;
+  // The smallest position in the current level of a parent of each vertex of the next level
+  private final AtomicIntegerArray firstParent;
+
+  // The verticies of the next level, in the order they were claimed
+  private final int[] next;
+  private final AtomicInteger nextSize = new AtomicInteger();
+
+  /**
+   * Creates a search that runs on the given pool.
+   *
+   * @param adjacency the adjacency index of the graph
+   * @param pool the pool to run the tasks on
+   */
+  public ParallelBreadthFirstSearch(AdjacencyIndex adjacency, ForkJoinPool pool) {
+    this.adjacency = adjacency;
+    this.pool = pool;
+    claimed = new AtomicLongArray((adjacency.vertexCount() + 63) >>> 6);
+    firstParent = new AtomicIntegerArray(adjacency.vertexCount());
+    next = new int[adjacency.vertexCount()];
+  }
+
+  /**
+   * Searches the graph from the roots, which all make up the first level.
+   *
+   * @param roots the indicies of the roots, in the order they are searched
+   * @return the indicies of the verticies in the order they are visited
+   */
+  public int[] search(int[] roots) {
+    final int vertexCount = adjacency.vertexCount();
+    final int[] order = new int[vertexCount];
+    int visited = 0;
+
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      firstParent.set(vertex, Integer.MAX_VALUE);
+    }
+    for (final int root : roots) {
+      if (claim(root)) {
+        firstParent.set(root, VISITED);
+        order[visited++] = root;
+      }
+    }
+
+    // The current level is always the last part of the visit order
+    int levelStart = 0;
+    long[] keys = new long[0];
+    while (levelStart < visited) {
+      nextSize.set(0);
+      expand(order, levelStart, visited);
+
+      final int size = nextSize.get();
+      if (keys.length < size) {
+        keys = new long[Math.max(size, keys.length * 2)];
+      }
+      for (int i = 0; i < size; i++) {
+        keys[i] = ((long) firstParent.get(next[i]) << 32) | next[i];
+      }
+      // Sort by the parent's position and then the vertex, the order of the sequential search
+      Arrays.parallelSort(keys, 0, size);
+
+      levelStart = visited;
+      for (int i = 0; i < size; i++) {
+        final int vertex = (int) keys[i];
+        firstParent.set(vertex, VISITED);
+        order[visited++] = vertex;
+      }
+    }
+
+    return visited == vertexCount ? order : Arrays.copyOf(order, visited);
+  }
+
+  /**
+   * Expands a level into the next one, using tasks on the pool if the level has enough edges.
+   *
+   * @param order the visit order, that ends with the level
+   * @param from the position of the first vertex of the level
+   * @param to the position after the last vertex of the level
+   */
+  private void expand(int[] order, int from, int to) {
+    final long edges = work(order, from, to);
+    final long grain =
+        Math.max(SEQUENTIAL_THRESHOLD, edges / ((long) pool.getParallelism() * TASKS_PER_THREAD));
+    final LevelTask task = new LevelTask(order, from, to, from, grain);
+
+    if (pool.getParallelism() < 2 || edges <= grain) {
+      task.expandRange();
+    } else if (ForkJoinTask.getPool() == pool) {
+      task.invoke();
+    } else {
+      pool.invoke(task);
+    }
+  }
+
+  /**
+   * Estimates the work of expanding a range of the level as the number of verticies plus the
+   * number of edges leaving them.
+   *
+   * @param order the visit order
+   * @param from the position of the first vertex
+   * @param to the position after the last vertex
+   * @return the work of the range
+   */
+  private long work(int[] order, int from, int to) {
+    long edges = to - from;
+    for (int i = from; i < to; i++) {
+      edges += adjacency.degree(order[i]);
+    }
+    return edges;
+  }
+
+  /**
+   * Claims a vertex for the next level.
+   *
+   * @param vertex the index of the vertex
+   * @return true if the vertex was not claimed before
+   */
+  private boolean claim(int vertex) {
+    final int word = vertex >>> 6;
+    final long bit = 1L << vertex;
+    long bits = claimed.get(word);
+    while ((bits & bit) == 0) {
+      if (claimed.compareAndSet(word, bits, bits | bit)) {
+        return true;
+      }
+      bits = claimed.get(word);
+    }
+    return false;
+  }
+
+  /**
+   * Lowers the first parent of a vertex to the given position, unless it already has an earlier
+   * parent or was visited in an earlier level.
+   *
+   * @param vertex the index of the vertex
+   * @param position the position of the parent
+   */
+  private void reachedFrom(int vertex, int position) {
+    int current = firstParent.get(vertex);
+    while (position < current && !firstParent.compareAndSet(vertex, current, position)) {
+      current = firstParent.get(vertex);
+    }
+  }
+
+  /** A task that expands a range of a level, splitting it in two while it has many edges. */
+  private class LevelTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient int[] order;
+    private final int from;
+    private final int to;
+    private final int levelStart;
+    private final long grain;
+
+    private LevelTask(int[] order, int from, int to, int levelStart, long grain) {
+      this.order = order;
+      this.from = from;
+      this.to = to;
+      this.levelStart = levelStart;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from < 2 || work(order, from, to) <= grain) {
+        expandRange();
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      invokeAll(
+          new LevelTask(order, from, middle, levelStart, grain),
+          new LevelTask(order, middle, to, levelStart, grain));
+    }
+
+    /** Claims the unvisited destinations of each vertex in the range for the next level. */
+    private void expandRange() {
+      // Collect the claimed verticies locally, then reserve room for them in the next level
+      int[] found = new int[16];
+      int count = 0;
+      for (int i = from; i < to; i++) {
+        final int vertex = order[i];
+        for (int j = adjacency.start(vertex); j < adjacency.end(vertex); j++) {
+          final int destination = adjacency.target(j);
+          if (claim(destination)) {
+            if (count == found.length) {
+              found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = destination;
+          }
+          reachedFrom(destination, i - levelStart);
+        }
+      }
+      System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Remembers the result of each property check of a graph, so that a property is only computed the
+ * first time it is asked for. The results must be cleared whenever the graph changes.
+ *
+ * <p>The cache can be shared by threads that check properties at the same time. If two threads ask
+ * for a property that is not cached yet, both may compute it, and both get the same result.
+ */
+public class PropertyCache {
+
+  /** The properties of a graph that can be cached. */
+  public enum Property {
+    REFLEXIVE,
+    SYMMETRIC,
+    TRANSITIVE,
+    ANTI_SYMMETRIC,
+    EQUIVALENCE
+  }
+
+  // null means the property has not been computed yet
+  private final AtomicReferenceArray<Boolean> results =
+      new AtomicReferenceArray<>(Property.values().length);
+
+  /**
+   * Gets the cached result of a property, without computing it.
+   *
+   * @param property the property to get
+   * @return the result of the property, or null if it has not been computed
+   */
+  public Boolean get(Property property) {
+    return results.get(property.ordinal());
+  }
+
+  /**
+   * Gets the result of a property, computing it with the given check if it is not cached.
+   *
+   * @param property the property to get
+   * @param check the check that computes the property
+   * @return the result of the property
+   */
+  public boolean get(Property property, BooleanSupplier check) {
+    Boolean result = results.get(property.ordinal());
+    if (result == null) {
+      result = check.getAsBoolean();
+      results.set(property.ordinal(), result);
+    }
+    return result;
+  }
+
+  /**
+   * Stores the result of a property that was computed outside of the cache.
+   *
+   * @param property the property to store
+   * @param result the result of the property
+   */
+  public void put(Property property, boolean result) {
+    results.set(property.ordinal(), result);
+  }
+
+  /** Forgets the results of every property. */
+  public void clear() {
+    for (int i = 0; i < results.length(); i++) {
+      results.set(i, null);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs the property checks of a graph on a fork join pool. A check is made of a test of each
+ * source vertex, and it is split into tasks over ranges of source verticies that each cover about
+ * the same number of verticies plus edges. Every task stops early once any task has found a
+ * violation, including the tasks of other checks that share the same violation flag.
+ *
+ * <p>Graphs that are too small to gain from the tasks are checked on the calling thread.
+ */
+public class PropertyChecker {
+
+  /** A test of the edges leaving one source vertex, that may need an array of marks. */
+  @FunctionalInterface
+  public interface VertexCheck {
+    /**
+     * Tests the property at a source vertex.
+     *
+     * @param source the index of the source vertex
+     * @param marks an array with an entry for every vertex, holding only stamps of other sources
+     * @return false if the property is violated at the source
+     */
+    boolean test(int source, int[] marks);
+  }
+
+  // The number of verticies plus edges below which a check is not split at all
+  private static final long PARALLEL_THRESHOLD = 1 << 15;
+  // Split into more tasks than threads, so a thread that finishes early can steal the rest
+  private static final int TASKS_PER_THREAD = 8;
+
+  private final AdjacencyIndex adjacency;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a checker that runs on the given pool.
+   *
+   * @param adjacency the adjacency index of the graph
+   * @param pool the pool to run the tasks on
+   */
+  public PropertyChecker(AdjacencyIndex adjacency, ForkJoinPool pool) {
+    this.adjacency = adjacency;
+    this.pool = pool;
+  }
+
+  /**
+   * Checks if the graph is large enough, and there are enough threads, for the checks to be split.
+   *
+   * @return true if the checks run in parallel
+   */
+  public boolean isParallel() {
+    return pool.getParallelism() > 1 && work(0, adjacency.vertexCount()) >= PARALLEL_THRESHOLD;
+  }
+
+  /**
+   * Runs a check that does not need any marks.
+   *
+   * @param check the test of each source vertex
+   * @return true if the property holds at every vertex
+   */
+  public boolean check(IntPredicate check) {
+    return check((source, marks) -> check.test(source), false, new AtomicBoolean());
+  }
+
+  /**
+   * Runs a check that may need an array of marks.
+   *
+   * @param check the test of each source vertex
+   * @param needsMarks true if the test uses the marks array
+   * @return true if the property holds at every vertex
+   */
+  public boolean check(VertexCheck check, boolean needsMarks) {
+    return check(check, needsMarks, new AtomicBoolean());
+  }
+
+  /**
+   * Runs a check that stops early if the violation flag is set by another check.
+   *
+   * @param check the test of each source vertex
+   * @param needsMarks true if the test uses the marks array
+   * @param violated the flag that is set once any check sharing it finds a violation
+   * @return true if the property holds, false if it does not, or null if the check was stopped
+   *     before it could tell because another check found a violation first
+   */
+  public Boolean check(VertexCheck check, boolean needsMarks, AtomicBoolean violated) {
+    final int vertexCount = adjacency.vertexCount();
+    final Evaluation evaluation = new Evaluation(check, needsMarks, vertexCount, violated);
+
+    if (isParallel()) {
+      final long grain =
+          Math.max(
+              PARALLEL_THRESHOLD / TASKS_PER_THREAD,
+              work(0, vertexCount) / ((long) pool.getParallelism() * TASKS_PER_THREAD));
+      run(new RangeTask(evaluation, 0, vertexCount, grain));
+    } else {
+      evaluation.checkRange(0, vertexCount);
+    }
+
+    if (evaluation.found) {
+      return false;
+    }
+    return evaluation.stopped ? null : true;
+  }
+
+  /**
+   * Runs several actions at the same time, such as checks of different properties.
+   *
+   * @param actions the actions to run
+   */
+  public void runAll(Runnable... actions) {
+    final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[actions.length];
+    for (int i = 0; i < actions.length; i++) {
+      tasks[i] = ForkJoinTask.adapt(actions[i]);
+    }
+    run(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+  }
+
+  /**
+   * Runs a task on the pool, or directly if it is already running on the pool.
+   *
+   * @param task the task to run
+   */
+  private void run(ForkJoinTask<?> task) {
+    if (ForkJoinTask.getPool() == pool) {
+      task.invoke();
+    } else {
+      pool.invoke(task);
+    }
+  }
+
+  /**
+   * Estimates the work of checking a range of source verticies as the number of verticies plus
+   * the number of edges leaving them.
+   *
+   * @param from the index of the first vertex
+   * @param to the index after the last vertex
+   * @return the work of the range
+   */
+  private long work(int from, int to) {
+    return (to - from) + (long) adjacency.start(to) - adjacency.start(from);
+  }
+
+  /** One run of a check, shared by all of the tasks it is split into. */
+  private static class Evaluation {
+    private final VertexCheck check;
+    private final boolean needsMarks;
+    private final int vertexCount;
+    private final AtomicBoolean violated;
+    // The marks arrays that are not in use, each task borrows one so no two tasks share an array
+    private final ConcurrentLinkedQueue<int[]> spareMarks = new ConcurrentLinkedQueue<>();
+
+    // Set by the task that finds a violation, or by a task that stops early
+    private volatile boolean found;
+    private volatile boolean stopped;
+
+    private Evaluation(
+        VertexCheck check, boolean needsMarks, int vertexCount, AtomicBoolean violated) {
+      this.check = check;
+      this.needsMarks = needsMarks;
+      this.vertexCount = vertexCount;
+      this.violated = violated;
+    }
+
+    /**
+     * Tests each source vertex of a range, stopping once any violation has been found.
+     *
+     * @param from the index of the first vertex
+     * @param to the index after the last vertex
+     */
+    private void checkRange(int from, int to) {
+      int[] marks = null;
+      if (needsMarks) {
+        // The stamps are unique to each source, so an array can be reused by the next task
+        marks = spareMarks.poll();
+        if (marks == null) {
+          marks = new int[vertexCount];
+        }
+      }
+
+      for (int source = from; source < to; source++) {
+        if (violated.get()) {
+          stopped = true;
+          break;
+        }
+        if (!check.test(source, marks)) {
+          found = true;
+          violated.set(true);
+          break;
+        }
+      }
+
+      if (marks != null) {
+        spareMarks.add(marks);
+      }
+    }
+  }
+
+  /** A task that checks a range of source verticies, splitting it in two while it is large. */
+  private class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Evaluation evaluation;
+    private final int from;
+    private final int to;
+    private final long grain;
+
+    private RangeTask(Evaluation evaluation, int from, int to, long grain) {
+      this.evaluation = evaluation;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (evaluation.violated.get()) {
+        evaluation.stopped = true;
+        return;
+      }
+      if (to - from < 2 || work(from, to) <= grain) {
+        evaluation.checkRange(from, to);
+        return;
+      }
+      final int middle = split();
+      invokeAll(
+          new RangeTask(evaluation, from, middle, grain),
+          new RangeTask(evaluation, middle, to, grain));
+    }
+
+    /**
+     * Finds the vertex that splits the range into two halves of about the same work, using a
+     * binary search of the row offsets.
+     *
+     * @return the index of the first vertex of the second half
+     */
+    private int split() {
+      final long half = work(from, to) / 2;
+      int low = from + 1;
+      int high = to - 1;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (work(from, middle) < half) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
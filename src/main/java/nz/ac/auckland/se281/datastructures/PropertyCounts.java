@@ -0,0 +1,218 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * Counts of the parts of a graph that break each of its properties, kept up to date as edges are
+ * added and removed. After a change the graph knows which properties hold by looking at the counts,
+ * without checking every edge again.
+ *
+ * <p>Transitivity is tracked by counting the violating triples, the paths A->B->C that have no
+ * edge A->C. An edge X->Y can only change the triples it is part of: the paths X->Y->C and A->X->Y
+ * that it starts or ends, and the paths X->B->Y that it closes. So each change is counted in time
+ * proportional to the degrees of X and Y, rather than the size of the graph.
+ *
+ * <p>Every change must be reported to the counts twice, once before the indexes are changed and
+ * once after, since the closed paths are counted while the edge is missing and the other paths are
+ * counted while it is there.
+ */
+public class PropertyCounts {
+
+  private final AdjacencyIndex out;
+  private final AdjacencyIndex in;
+  private final EdgeKeySet keys;
+
+  // The edges from a vertex to itself
+  private long selfLoops;
+  // The edges between two different verticies that do not have a reverse edge
+  private long unmatched;
+  // The edges between two different verticies that do have a reverse edge
+  private long mutual;
+  // The paths A->B->C that do not have an edge A->C
+  private long violatingTriples;
+
+  /**
+   * Counts the edges and violating triples of a graph. The counts keep the indexes, so they must
+   * be thrown away if the graph replaces any of them.
+   *
+   * @param out the adjacency index of the out-going edges
+   * @param in the adjacency index of the in-coming edges
+   * @param keys the key set of the same edges
+   */
+  public PropertyCounts(AdjacencyIndex out, AdjacencyIndex in, EdgeKeySet keys) {
+    this.out = out;
+    this.in = in;
+    this.keys = keys;
+
+    // The destinations of each source are stamped into the marks, like the transitivity check
+    int[] marks = new int[out.vertexCount()];
+    for (int source = 0; source < out.vertexCount(); source++) {
+      int stamp = source + 1;
+      for (int i = out.start(source); i < out.end(source); i++) {
+        marks[out.target(i)] = stamp;
+      }
+      for (int i = out.start(source); i < out.end(source); i++) {
+        int destination = out.target(i);
+        if (source == destination) {
+          selfLoops++;
+        } else if (keys.contains(destination, source)) {
+          mutual++;
+        } else {
+          unmatched++;
+        }
+        for (int j = out.start(destination); j < out.end(destination); j++) {
+          if (marks[out.target(j)] != stamp) {
+            violatingTriples++;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts an edge that is about to be added, before any of the indexes have it.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   */
+  public void adding(int source, int destination) {
+    // The paths the edge closes are no longer violations
+    violatingTriples -= closedPaths(source, destination);
+  }
+
+  /**
+   * Counts an edge that has been added to every index.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   */
+  public void added(int source, int destination) {
+    count(source, destination, 1);
+    violatingTriples += openPaths(source, destination);
+  }
+
+  /**
+   * Counts an edge that is about to be removed, while every index still has it.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   */
+  public void removing(int source, int destination) {
+    violatingTriples -= openPaths(source, destination);
+  }
+
+  /**
+   * Counts an edge that has been removed from every index.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   */
+  public void removed(int source, int destination) {
+    count(source, destination, -1);
+    // The paths the edge closed are violations again
+    violatingTriples += closedPaths(source, destination);
+  }
+
+  /**
+   * Adds or takes away an edge from the counts of single edges. The reverse of an edge between
+   * different verticies changes between unmatched and mutual along with it.
+   *
+   * @param source the index of the source vertex
+   * @param destination the index of the destination vertex
+   * @param sign 1 if the edge has been added, or -1 if it has been removed
+   */
+  private void count(int source, int destination, int sign) {
+    if (source == destination) {
+      selfLoops += sign;
+    } else if (keys.contains(destination, source)) {
+      mutual += 2 * sign;
+      unmatched -= sign;
+    } else {
+      unmatched += sign;
+    }
+  }
+
+  /**
+   * Counts the violating triples that start or end with an edge X->Y that is in the graph, which
+   * are the paths X->Y->C without X->C and the paths A->X->Y without A->Y.
+   *
+   * @param source the index of X
+   * @param destination the index of Y
+   * @return the number of violating triples
+   */
+  private long openPaths(int source, int destination) {
+    long count = 0;
+    for (int i = out.start(destination); i < out.end(destination); i++) {
+      if (!keys.contains(source, out.target(i))) {
+        count++;
+      }
+    }
+    for (int i = in.start(source); i < in.end(source); i++) {
+      if (!keys.contains(in.target(i), destination)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the paths X->B->Y that an edge X->Y would close, while the edge is not in the graph.
+   * The shorter of the destinations of X and the sources of Y is scanned.
+   *
+   * @param source the index of X
+   * @param destination the index of Y
+   * @return the number of paths
+   */
+  private long closedPaths(int source, int destination) {
+    long count = 0;
+    if (out.degree(source) <= in.degree(destination)) {
+      for (int i = out.start(source); i < out.end(source); i++) {
+        if (keys.contains(out.target(i), destination)) {
+          count++;
+        }
+      }
+    } else {
+      for (int i = in.start(destination); i < in.end(destination); i++) {
+        if (keys.contains(source, in.target(i))) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks if every vertex has an edge to itself.
+   *
+   * @param vertexCount the number of verticies in the graph
+   * @return true if the graph is reflexive
+   */
+  public boolean isReflexive(int vertexCount) {
+    return selfLoops == vertexCount;
+  }
+
+  /**
+   * Checks if every edge has a reverse edge.
+   *
+   * @return true if the graph is symmetric
+   */
+  public boolean isSymmetric() {
+    return unmatched == 0;
+  }
+
+  /**
+   * Checks if no edge between two different verticies has a reverse edge.
+   *
+   * @return true if the graph is anti-symmetric
+   */
+  public boolean isAntiSymmetric() {
+    return mutual == 0;
+  }
+
+  /**
+   * Checks if every path A->B->C has an edge A->C.
+   *
+   * @return true if the graph is transitive
+   */
+  public boolean isTransitive() {
+    return violatingTriples == 0;
+  }
+}
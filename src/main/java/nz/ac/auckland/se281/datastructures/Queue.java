@@ -5,7 +5,7 @@ package nz.ac.auckland.se281.datastructures;
  *
  * @param <T> The type of each vertex, that have a total ordering
  */
-public class Queue<T> extends LinkedList<T> {
+public class Queue<T> extends RingBuffer<T> {
 
   // Add a new element to the end of the queue
   public void enqueue(T element) {
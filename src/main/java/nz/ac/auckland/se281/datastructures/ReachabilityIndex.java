@@ -0,0 +1,259 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * The transitive closure of a graph, which answers whether there is a path from one vertex to
+ * another in constant time. A path has at least one edge, so a vertex only reaches itself if it is
+ * on a cycle.
+ *
+ * <p>The strongly connected components of the graph are found first, since every vertex of a
+ * component reaches exactly the same verticies. Tarjan's algorithm numbers the components in
+ * reverse topological order, so the components that a component has edges to always have smaller
+ * numbers. The closure of the condensed graph is then built in that order, one bit row per
+ * component, by or-ing in the row of each component it has an edge to, 64 components at a time.
+ *
+ * <p>A component can only reach components with a number no larger than its own, so the row of
+ * component c only holds the words for components 0 to c. The closure of C components still takes
+ * about C*C/16 bytes, which is why the graph refuses to build an index above a memory limit.
+ *
+ * @param <T> The type of each vertex, that have a total ordering.
+ */
+public class ReachabilityIndex<T extends Comparable<T>> {
+
+  private final VertexTable<T> verticies;
+  // The strongly connected component of each vertex
+  private final int[] componentOf;
+  private final int componentCount;
+  // The rows of the closure, row c starts at word rowStart(c) and has (c >>> 6) + 1 words
+  private final long[] closure;
+
+  /**
+   * Creates an index from the components and closure that were built before, such as the ones read
+   * back from a snapshot.
+   *
+   * @param verticies the symbol table of the verticies, in vertex order
+   * @param componentOf the component of each vertex
+   * @param componentCount the number of components
+   * @param closure the rows of the closure of the components
+   */
+  ReachabilityIndex(
+      VertexTable<T> verticies, int[] componentOf, int componentCount, long[] closure) {
+    this.verticies = verticies;
+    this.componentOf = componentOf;
+    this.componentCount = componentCount;
+    this.closure = closure;
+  }
+
+  /**
+   * Builds the index of a graph, unless its closure would need more memory than the limit.
+   *
+   * @param verticies the symbol table of the verticies, in vertex order
+   * @param adjacency the adjacency index of the edges
+   * @param maxBytes the largest number of bytes the closure may use
+   * @return the index, or null if the closure would be too large
+   */
+  static <T extends Comparable<T>> ReachabilityIndex<T> build(
+      VertexTable<T> verticies, AdjacencyIndex adjacency, long maxBytes) {
+    int vertexCount = adjacency.vertexCount();
+    int[] componentOf = new int[vertexCount];
+    int componentCount = findComponents(adjacency, componentOf);
+    long words = rowStart(componentCount);
+    if (words > Integer.MAX_VALUE - 8 || words * Long.BYTES > maxBytes) {
+      return null;
+    }
+
+    // Group the verticies of each component together, so a component's edges can be scanned
+    int[] memberStart = new int[componentCount + 1];
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      memberStart[componentOf[vertex] + 1]++;
+    }
+    for (int c = 0; c < componentCount; c++) {
+      memberStart[c + 1] += memberStart[c];
+    }
+    int[] members = new int[vertexCount];
+    int[] next = memberStart.clone();
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      members[next[componentOf[vertex]]++] = vertex;
+    }
+
+    long[] closure = new long[(int) words];
+    // One more than the last row each row was or-ed into, so it is only or-ed into a row once
+    int[] stamps = new int[componentCount];
+    for (int c = 0; c < componentCount; c++) {
+      int row = (int) rowStart(c);
+      for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+        int source = members[m];
+        for (int i = adjacency.start(source); i < adjacency.end(source); i++) {
+          int d = componentOf[adjacency.target(i)];
+          if (stamps[d] == c + 1) {
+            continue;
+          }
+          stamps[d] = c + 1;
+          // An edge inside the component means it is on a cycle, and reaches itself
+          closure[row + (d >>> 6)] |= 1L << d;
+          if (d != c) {
+            int other = (int) rowStart(d);
+            for (int w = 0; w <= d >>> 6; w++) {
+              closure[row + w] |= closure[other + w];
+            }
+          }
+        }
+      }
+    }
+    return new ReachabilityIndex<>(verticies, componentOf, componentCount, closure);
+  }
+
+  /**
+   * Finds the strongly connected components with an iterative version of Tarjan's algorithm, so a
+   * long path does not overflow the call stack.
+   *
+   * @param adjacency the adjacency index of the edges
+   * @param componentOf filled with the component of each vertex
+   * @return the number of components
+   */
+  private static int findComponents(AdjacencyIndex adjacency, int[] componentOf) {
+    int vertexCount = adjacency.vertexCount();
+    // The order each vertex was first visited in, and the lowest order it can get back to
+    int[] order = new int[vertexCount];
+    int[] low = new int[vertexCount];
+    // The position of the next edge of each vertex on the call stack to follow
+    int[] nextEdge = new int[vertexCount];
+    int[] calls = new int[vertexCount];
+    // The visited verticies that have not been given a component yet
+    int[] stack = new int[vertexCount];
+    VertexBitSet onStack = new VertexBitSet(vertexCount);
+
+    int visited = 0;
+    int componentCount = 0;
+    int stackSize = 0;
+    for (int root = 0; root < vertexCount; root++) {
+      if (order[root] != 0) {
+        continue;
+      }
+      int depth = 0;
+      // The orders start from 1, so that 0 means not visited
+      order[root] = low[root] = ++visited;
+      nextEdge[root] = adjacency.start(root);
+      calls[depth++] = root;
+      stack[stackSize++] = root;
+      onStack.add(root);
+
+      while (depth > 0) {
+        int vertex = calls[depth - 1];
+        if (nextEdge[vertex] < adjacency.end(vertex)) {
+          int destination = adjacency.target(nextEdge[vertex]++);
+          if (order[destination] == 0) {
+            order[destination] = low[destination] = ++visited;
+            nextEdge[destination] = adjacency.start(destination);
+            calls[depth++] = destination;
+            stack[stackSize++] = destination;
+            onStack.add(destination);
+          } else if (onStack.contains(destination)) {
+            low[vertex] = Math.min(low[vertex], order[destination]);
+          }
+          continue;
+        }
+
+        depth--;
+        if (low[vertex] == order[vertex]) {
+          // The vertex is the first of its component to be visited, so the rest are above it
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack.remove(member);
+            componentOf[member] = componentCount;
+          } while (member != vertex);
+          componentCount++;
+        }
+        if (depth > 0) {
+          int caller = calls[depth - 1];
+          low[caller] = Math.min(low[caller], low[vertex]);
+        }
+      }
+    }
+    return componentCount;
+  }
+
+  /**
+   * Finds the position of the first word of a row of the closure, where row k has (k >>> 6) + 1
+   * words.
+   *
+   * @param component the component of the row
+   * @return the position of the row, which is the number of words before it
+   */
+  private static long rowStart(int component) {
+    long blocks = component >>> 6;
+    long rest = component & 63;
+    // Each full block of 64 rows has 64 rows of each width from 1 to blocks
+    return 64 * blocks * (blocks + 1) / 2 + rest * (blocks + 1);
+  }
+
+  /**
+   * Checks if there is a path with at least one edge from one vertex to another.
+   *
+   * @param source the vertex the path starts at
+   * @param destination the vertex the path ends at
+   * @return true if the destination can be reached from the source
+   * @throws IllegalArgumentException if either vertex is not in the graph
+   */
+  public boolean canReach(T source, T destination) {
+    int from = componentOf[indexOf(source)];
+    int to = componentOf[indexOf(destination)];
+    // A component only reaches components with numbers no larger than its own
+    return to <= from && (closure[(int) rowStart(from) + (to >>> 6)] & (1L << to)) != 0;
+  }
+
+  private int indexOf(T vertex) {
+    int index = verticies.indexOf(vertex);
+    if (index < 0) {
+      throw new IllegalArgumentException("Vertex " + vertex + " is not in the graph");
+    }
+    return index;
+  }
+
+  /**
+   * Gets the number of strongly connected components of the graph.
+   *
+   * @return the number of components
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Estimates the number of bytes of memory the index uses, which is the component of each vertex
+   * and the rows of the closure.
+   *
+   * @return the estimated size of the index in bytes
+   */
+  public long estimateMemory() {
+    return (long) componentOf.length * Integer.BYTES + (long) closure.length * Long.BYTES;
+  }
+
+  /**
+   * Gets the component of each vertex.
+   *
+   * @return the components, which must not be changed
+   */
+  int[] getComponents() {
+    return componentOf;
+  }
+
+  /**
+   * Gets the rows of the closure.
+   *
+   * @return the closure, which must not be changed
+   */
+  long[] getClosure() {
+    return closure;
+  }
+
+  /**
+   * Finds the number of words in the closure of a number of components.
+   *
+   * @param componentCount the number of components
+   * @return the number of words
+   */
+  static long closureWords(int componentCount) {
+    return rowStart(componentCount);
+  }
+}
@@ -0,0 +1,113 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A list that is stored in a growable circular array. Adding or removing at the front and adding
+ * at the back are constant time, and no node object is created for each element. Nodes are indexed
+ * starting from 0. List goes from 0 to size-1.
+ *
+ * @param <T> The type of each vertex, that have a total ordering
+ */
+public class RingBuffer<T> implements List<T> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  // The capacity is always a power of two so positions can wrap around with a mask
+  private Object[] elements;
+  private int head;
+  private int size;
+
+  public RingBuffer() {
+    elements = new Object[DEFAULT_CAPACITY];
+  }
+
+  /**
+   * This method adds an element as the first element of the list.
+   *
+   * @param data The data to add to the list as the first element
+   */
+  @Override
+  public void prepend(T data) {
+    growIfFull();
+    head = (head - 1) & (elements.length - 1);
+    elements[head] = data;
+    size++;
+  }
+
+  /**
+   * This method adds an element as the last element of the list.
+   *
+   * @param data The data to add to the list as the last element
+   */
+  @Override
+  public void append(T data) {
+    growIfFull();
+    elements[(head + size) & (elements.length - 1)] = data;
+    size++;
+  }
+
+  /**
+   * This method will fetch the element at a given position.
+   *
+   * @param pos The position of the element to fetch
+   * @return The element at the given position, or null if there is no element at the position
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T fetch(int pos) {
+    if (pos < 0 || pos >= size) {
+      return null;
+    }
+    return (T) elements[(head + pos) & (elements.length - 1)];
+  }
+
+  /**
+   * This method removes the first element of the list. The slot is cleared so the list does not
+   * keep the element alive.
+   *
+   * @return The removed element, or null if the list is empty
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T removeHead() {
+    if (size == 0) {
+      return null;
+    }
+    T value = (T) elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return value;
+  }
+
+  /**
+   * This method will find the size of a list.
+   *
+   * @return the size of the list
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * This method will check if the list is empty.
+   *
+   * @return true if the list is empty, false otherwise
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Doubles the capacity if the array is full, unwrapping the elements to start at 0. */
+  private void growIfFull() {
+    if (size < elements.length) {
+      return;
+    }
+    Object[] grown = Arrays.copyOfRange(elements, head, head + elements.length * 2);
+    System.arraycopy(elements, 0, grown, elements.length - head, head);
+    elements = grown;
+    head = 0;
+  }
+}
@@ -5,7 +5,7 @@ package nz.ac.auckland.se281.datastructures;
  *
  * @param <T> The type of each vertex, that have a total ordering
  */
-public class Stack<T> extends LinkedList<T> {
+public class Stack<T> extends RingBuffer<T> {
 
   public void push(T element) {
     // Adds the element to the top of the stack, the front of the list
@@ -16,4 +16,9 @@ public class Stack<T> extends LinkedList<T> {
     // Removes and returns the element at the top of the stack, the front of the list
     return removeHead();
   }
+
+  public T peek() {
+    // Returns the element at the top of the stack without removing it
+    return fetch(0);
+  }
 }
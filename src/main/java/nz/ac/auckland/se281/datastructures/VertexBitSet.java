@@ -0,0 +1,51 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * A fixed size set of vertex indicies, stored as one bit per vertex in a long array. Adding and
+ * checking a vertex are both constant time.
+ */
+public class VertexBitSet {
+
+  private final long[] words;
+
+  /**
+   * Creates an empty set that can hold the indicies from 0 to vertexCount-1.
+   *
+   * @param vertexCount the number of verticies
+   */
+  public VertexBitSet(int vertexCount) {
+    words = new long[(vertexCount + 63) >>> 6];
+  }
+
+  /**
+   * Checks if a vertex is in the set.
+   *
+   * @param vertex the index of the vertex
+   * @return true if the vertex is in the set
+   */
+  public boolean contains(int vertex) {
+    return (words[vertex >>> 6] & (1L << vertex)) != 0;
+  }
+
+  /**
+   * Adds a vertex to the set.
+   *
+   * @param vertex the index of the vertex
+   * @return true if the vertex was not already in the set
+   */
+  public boolean add(int vertex) {
+    long word = words[vertex >>> 6];
+    long bit = 1L << vertex;
+    words[vertex >>> 6] = word | bit;
+    return (word & bit) == 0;
+  }
+
+  /**
+   * Removes a vertex from the set.
+   *
+   * @param vertex the index of the vertex
+   */
+  public void remove(int vertex) {
+    words[vertex >>> 6] &= ~(1L << vertex);
+  }
+}
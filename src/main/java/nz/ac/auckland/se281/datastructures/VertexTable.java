@@ -0,0 +1,189 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A symbol table that gives each vertex a dense integer index, from 0 to size-1, so that the graph
+ * algorithms can work with integers and only look up the vertex when it is printed.
+ *
+ * @param <T> The type of each vertex, that have a total ordering.
+ */
+public class VertexTable<T extends Comparable<T>> {
+
+  private final List<T> verticies = new ArrayList<T>();
+  private final Map<T, Integer> indicies = new HashMap<T, Integer>();
+
+  /**
+   * Adds a vertex to the table if it is not already in it.
+   *
+   * @param vertex the vertex to add
+   * @return the index of the vertex
+   */
+  public int add(T vertex) {
+    Integer index = indicies.get(vertex);
+    if (index == null) {
+      index = verticies.size();
+      verticies.add(vertex);
+      indicies.put(vertex, index);
+    }
+    return index;
+  }
+
+  /**
+   * Finds the index of a vertex.
+   *
+   * @param vertex the vertex to look up
+   * @return the index of the vertex, or -1 if the vertex is not in the table
+   */
+  public int indexOf(T vertex) {
+    Integer index = indicies.get(vertex);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Gets the vertex with the given index.
+   *
+   * @param index the index of the vertex
+   * @return the vertex
+   */
+  public T get(int index) {
+    return verticies.get(index);
+  }
+
+  /**
+   * Gets the number of verticies in the table.
+   *
+   * @return the number of verticies
+   */
+  public int size() {
+    return verticies.size();
+  }
+
+  /**
+   * Finds where a vertex belongs in a table that is in vertex order, with a binary search.
+   *
+   * @param vertex the vertex to look for, that is not in the table
+   * @return the index the vertex would have once it is inserted
+   */
+  public int insertionPoint(T vertex) {
+    int low = 0;
+    int high = verticies.size() - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (compare(verticies.get(middle), vertex) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Inserts a vertex that is not in the table at the given index, so the verticies from that index
+   * onwards each move up by one. Inserting anywhere but the end renumbers the following verticies.
+   *
+   * @param index the index of the new vertex
+   * @param vertex the vertex to insert
+   */
+  public void insert(int index, T vertex) {
+    verticies.add(index, vertex);
+    for (int i = index; i < verticies.size(); i++) {
+      indicies.put(verticies.get(i), i);
+    }
+  }
+
+  /**
+   * Reorders the table into vertex order, so that the index order is the order the verticies are
+   * searched and printed in. Verticies that are whole numbers come first in numeric order, and the
+   * other verticies follow in their natural order. The sort key of each vertex is worked out once
+   * before sorting, so no vertex is parsed while comparing.
+   *
+   * @return an array where position i holds the new index of the vertex that had index i
+   */
+  public int[] sort() {
+    int size = verticies.size();
+    boolean[] numeric = new boolean[size];
+    long[] numbers = new long[size];
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+      T vertex = verticies.get(i);
+      if (vertex instanceof String && isNumber((String) vertex)) {
+        numeric[i] = true;
+        numbers[i] = Long.parseLong((String) vertex);
+      }
+    }
+    Arrays.sort(
+        order,
+        (first, second) -> {
+          if (numeric[first] != numeric[second]) {
+            return numeric[first] ? -1 : 1;
+          }
+          if (numeric[first] && numbers[first] != numbers[second]) {
+            return Long.compare(numbers[first], numbers[second]);
+          }
+          return verticies.get(first).compareTo(verticies.get(second));
+        });
+
+    int[] relabel = new int[size];
+    List<T> sorted = new ArrayList<T>(size);
+    for (int i = 0; i < size; i++) {
+      T vertex = verticies.get(order[i]);
+      relabel[order[i]] = i;
+      indicies.put(vertex, i);
+      sorted.add(vertex);
+    }
+    verticies.clear();
+    verticies.addAll(sorted);
+    return relabel;
+  }
+
+  /**
+   * Compares two verticies in vertex order, the same order that {@link #sort()} uses.
+   *
+   * @param first the first vertex
+   * @param second the second vertex
+   * @return a negative number, zero or a positive number if the first vertex is before, the same
+   *     as or after the second
+   */
+  private static <T extends Comparable<T>> int compare(T first, T second) {
+    boolean firstNumeric = first instanceof String && isNumber((String) first);
+    boolean secondNumeric = second instanceof String && isNumber((String) second);
+    if (firstNumeric != secondNumeric) {
+      return firstNumeric ? -1 : 1;
+    }
+    if (firstNumeric) {
+      int order = Long.compare(Long.parseLong((String) first), Long.parseLong((String) second));
+      if (order != 0) {
+        return order;
+      }
+    }
+    return first.compareTo(second);
+  }
+
+  /**
+   * Checks if a vertex id is a whole number that fits in a long, without throwing an exception for
+   * the ids that are not.
+   *
+   * @param id the id of the vertex
+   * @return true if the id is a whole number
+   */
+  private static boolean isNumber(String id) {
+    int start = id.startsWith("-") ? 1 : 0;
+    // At most 18 digits, so the number always fits in a long
+    if (id.length() == start || id.length() - start > 18) {
+      return false;
+    }
+    for (int i = start; i < id.length(); i++) {
+      if (id.charAt(i) < '0' || id.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,108 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import nz.ac.auckland.se281.datastructures.GraphAssert;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the streaming {@link DotReader} loads the same graph as the full parser, and that it
+ * leaves every file it cannot read the same way to the parser.
+ */
+public class DotReaderTest {
+  private Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("dot");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (final Path file : files) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Writes a DOT file to the temporary folder.
+   *
+   * @param dot the contents of the file
+   * @return the path of the file
+   */
+  private Path write(final String dot) throws IOException {
+    return Files.writeString(Files.createTempFile(directory, "graph", ".txt"), dot);
+  }
+
+  /**
+   * Checks that both readers load the same graph from a file.
+   *
+   * @param file the path of the DOT file
+   */
+  private static void assertSameGraph(final Path file) throws IOException {
+    GraphAssert.assertSameGraph(file.toString(), GraphCalculator.parse(file), DotReader.read(file));
+  }
+
+  @Test
+  public void everyTestCase() throws Exception {
+    int count = 0;
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(GraphCalculator.TESTCASES, "[a-z].txt")) {
+      for (final Path file : files) {
+        assertSameGraph(file);
+        count++;
+      }
+    }
+    Assert.assertTrue(count > 0);
+  }
+
+  @Test
+  public void namesAndNumerals() throws Exception {
+    assertSameGraph(
+        write(
+            "/* numerals */ digraph ids {\n"
+                + "  -1 -> .5 -> 2. -> -3.25 -> -.5 # and names\n"
+                + "  a_b -> _x -> X1; x1 -> X1 -> a_b\n"
+                + "  solo;\n"
+                + "}\n"));
+  }
+
+  @Test
+  public void unsupportedIds() throws Exception {
+    final String[] statements = {
+      // The full parser splits each of these into several tokens, or rejects them
+      "1a -> b",
+      "a.b -> c",
+      "-a -> b",
+      "1.2.3 -> a",
+      "a -> .",
+      "x -> \u00e9",
+      "- 1 -> a",
+      // Attributes and quoted ids are left to the full parser too
+      "a -> b [color=red]",
+      "\"c d\" -> a",
+      "a -> b; node [shape=box]"
+    };
+    for (final String statement : statements) {
+      Assert.assertNull(statement, DotReader.read(write("digraph { " + statement + " }")));
+    }
+  }
+
+  @Test
+  public void parserSplitsIds() throws Exception {
+    // The streaming reader would have read 1a as a single vertex
+    final Path file = write("digraph { 1a -> b }");
+    Assert.assertNull(DotReader.read(file));
+    Assert.assertEquals(
+        List.of("1", "a", "b", "a -> b"), GraphAssert.contentsOf(GraphCalculator.parse(file)));
+  }
+}
@@ -2,6 +2,13 @@ package nz.ac.auckland.se281;
 
 import static nz.ac.auckland.se281.Command.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -376,6 +383,13 @@ public class MainTest {
               + " 14]");
     }
 
+    @Test
+    public void TY_01_I_roots() throws Exception {
+      runCommands(OPEN_FILE, "i.txt", LIST_ROOT_VERTICIES);
+      assertContains("Successfully opened graph from file i.txt");
+      assertContains("[0, 2, 10, 12, 20, 100]");
+    }
+
     @Test
     public void TY_02_I_IBFS() throws Exception {
       runCommands(OPEN_FILE, "i.txt", GRAPH_SEARCH_IBFS);
@@ -396,5 +410,404 @@ public class MainTest {
       assertContains("Successfully opened graph from file i.txt");
       assertContains("[0, 1, 2, 3, 10, 11, 12, 13, 20, 21, 100, 101]");
     }
+
+    // numeric verticies are ordered numerically, before verticies that are not numbers
+    @Test
+    public void TY_01_J_iterative_BFS() throws Exception {
+      runCommands(OPEN_FILE, "j.txt", GRAPH_SEARCH_IBFS);
+      assertContains("Successfully opened graph from file j.txt");
+      assertContains("[2, 10, a, b, c]");
+    }
+
+    @Test
+    public void TY_01_J_parallel_BFS() throws Exception {
+      runCommands(OPEN_FILE, "j.txt", GRAPH_SEARCH_PBFS);
+      assertContains("Successfully opened graph from file j.txt");
+      assertContains("[2, 10, a, b, c]");
+    }
+
+    @Test
+    public void TY_01_J_levels() throws Exception {
+      runCommands(OPEN_FILE, "j.txt", GRAPH_SEARCH_LEVELS);
+      assertContains("Successfully opened graph from file j.txt");
+      assertContains("Level 2 (");
+      assertContains("): [a, b]");
+      assertContains("Reached 5 of 5 verticies from the roots");
+    }
+
+    @Test
+    public void TY_02_J_iterative_DFS() throws Exception {
+      runCommands(OPEN_FILE, "j.txt", GRAPH_SEARCH_IDFS);
+      assertContains("Successfully opened graph from file j.txt");
+      assertContains("[2, 10, a, c, b]");
+    }
+
+    @Test
+    public void TY_02_J_verticies_edges() throws Exception {
+      runCommands(OPEN_FILE, "j.txt", LIST_VERTICIES_EDGES);
+      assertContains(
+          String.join(
+              NEW_LINE,
+              "Verticies:",
+              "\t2",
+              "\t10",
+              "\ta",
+              "\tb",
+              "\tc",
+              "",
+              "Edges:",
+              "\t2 -> 10",
+              "\t10 -> a",
+              "\t10 -> b",
+              "\ta -> c",
+              "\tb -> c",
+              ""));
+    }
+
+    @Test
+    public void TY_02_I_verticies_edges() throws Exception {
+      runCommands(OPEN_FILE, "i.txt", LIST_VERTICIES_EDGES);
+      assertContains("\t21" + NEW_LINE + "\t100" + NEW_LINE + "\t101" + NEW_LINE);
+      assertContains("\t20 -> 21" + NEW_LINE + "\t100 -> 101" + NEW_LINE);
+    }
+
+    @Test
+    public void TY_02_parser_fallback() throws Exception {
+      final Path file = Path.of("testcases", "fallback.txt");
+      try {
+        // The streaming reader does not support quoted ids or attributes, so the parser loads it
+        Files.writeString(file, "digraph { \"c d\" -> a; 1a -> b [color=red]; }");
+        runCommands(OPEN_FILE, "fallback.txt", LIST_VERTICIES_EDGES);
+        assertContains("Successfully opened graph from file fallback.txt");
+        assertContains(
+            String.join(
+                NEW_LINE, "\t1", "\t\"c d\"", "\ta", "\tb", "", "Edges:", "\t\"c d\" -> a"));
+        assertContains("\ta -> b" + NEW_LINE);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+
+    @Test
+    public void TY_03_J_snapshot() throws Exception {
+      try {
+        runCommands(OPEN_FILE, "j.txt", REACHABLE, "2", "c", SAVE_SNAPSHOT);
+        assertContains("Built a reachability index of 5 components", 0);
+        assertContains("Saved snapshot to j.txt.snapshot", 0);
+
+        // A new session has an empty cache, so the graph is read back from the snapshot
+        runCommands(
+            OPEN_FILE, "j.txt", GRAPH_SEARCH_IDFS, CHECK_SYMMETRY, REACHABLE, "a", "c", INFO);
+        assertContains("0 hits, 1 misses", 1);
+        assertContains("[2, 10, a, c, b]", 1);
+        assertContains("The graph is NOT symmetric", 1);
+        assertContains("a can reach c", 1);
+        // The reachability index was saved in the snapshot, so it is not built again
+        assertDoesNotContain("Built a reachability index", 1);
+      } finally {
+        Files.deleteIfExists(Path.of("testcases", "j.txt.snapshot"));
+      }
+    }
+
+    @Test
+    public void TY_03_edited_before_snapshot() throws Exception {
+      final Path file = Path.of("testcases", "edited.txt");
+      try {
+        Files.writeString(file, "digraph { a -> b }");
+        final GraphCalculator calculator = new GraphCalculator("edited.txt");
+        // The snapshot is of the graph that was loaded, so it must not match the edited file
+        Files.writeString(file, "digraph { a -> b; b -> c }");
+        Assert.assertTrue(calculator.saveSnapshot());
+
+        runCommands(OPEN_FILE, "edited.txt", LIST_VERTICIES_EDGES);
+        assertContains("\ta -> b" + NEW_LINE + "\tb -> c" + NEW_LINE);
+      } finally {
+        Files.deleteIfExists(Path.of("testcases", "edited.txt.snapshot"));
+        Files.deleteIfExists(file);
+      }
+    }
+
+    @Test
+    public void TY_04_cache() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          CHECK_SYMMETRY,
+          OPEN_FILE,
+          "j.txt",
+          OPEN_FILE,
+          "a.txt",
+          INFO,
+          LIST_ROOT_VERTICIES);
+      assertContains("File name: a.txt");
+      assertContains("Graph cache: 1 hits, 2 misses, 0 evictions, 2 graphs");
+      assertContains("[0]");
+    }
+
+    @Test
+    public void TY_04_cache_measures_indexes() throws Exception {
+      runCommands(OPEN_FILE, "a.txt", INFO, REACHABLE, "0", "5", GRAPH_SEARCH_LEVELS, INFO);
+      final Matcher used = Pattern.compile("graphs using about (\\d+) of").matcher(getCaptureOut());
+      Assert.assertTrue(used.find());
+      final long before = Long.parseLong(used.group(1));
+      Assert.assertTrue(used.find());
+      // The reachability index and the in-coming edges are counted once they are built
+      Assert.assertTrue(Long.parseLong(used.group(1)) > before);
+    }
+
+    @Test
+    public void TY_04_cache_evicts_when_indexes_grow() throws Exception {
+      inputs.add(new Object[] {"a.txt", "j.txt"});
+      final long capacity =
+          new GraphCalculator("a.txt").estimateMemory()
+              + new GraphCalculator("j.txt").estimateMemory();
+      final GraphCache cache = new GraphCache(capacity);
+      cache.open("j.txt");
+      final GraphCalculator calculator = cache.open("a.txt");
+      cache.printInfo();
+      assertContains("0 evictions, 2 graphs");
+
+      // Building the index makes the two graphs too large, so the older one is evicted
+      calculator.printReachable("0", "5");
+      cache.measure(calculator);
+      cache.printInfo();
+      assertContains("1 evictions, 1 graphs");
+    }
+
+    @Test
+    public void TY_04_cache_keeps_measured_graph() throws Exception {
+      inputs.add(new Object[] {"a.txt", "j.txt"});
+      final long capacity =
+          new GraphCalculator("a.txt").estimateMemory()
+              + new GraphCalculator("j.txt").estimateMemory();
+      final GraphCache cache = new GraphCache(capacity);
+      final GraphCalculator older = cache.open("a.txt");
+      cache.open("j.txt");
+
+      // The graph that grew is the least recently opened one, but the other one is evicted
+      older.printReachable("0", "5");
+      cache.measure(older);
+      cache.printInfo();
+      assertContains("1 evictions, 1 graphs");
+      Assert.assertSame(older, cache.open("a.txt"));
+    }
+
+    @Test
+    public void TY_04_cache_file_size() throws Exception {
+      inputs.add(new Object[] {"resized.txt"});
+      final Path file = Path.of("testcases", "resized.txt");
+      try {
+        Files.writeString(file, "digraph { a -> b }");
+        final GraphCache cache = new GraphCache(Long.MAX_VALUE);
+        cache.open("resized.txt");
+
+        // A change that keeps the modified time is still noticed from the size
+        final FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, "digraph { a -> b -> c }");
+        Files.setLastModifiedTime(file, modified);
+        cache.open("resized.txt").printVerticiesEdges();
+        cache.printInfo();
+        assertContains("\tb -> c" + NEW_LINE);
+        assertContains("0 hits, 2 misses");
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+
+    @Test
+    public void TY_05_add_remove_edge() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          ADD_EDGE,
+          "5",
+          "0",
+          ADD_EDGE,
+          "5",
+          "0",
+          LIST_ROOT_VERTICIES,
+          REMOVE_EDGE,
+          "5",
+          "0",
+          REMOVE_EDGE,
+          "5",
+          "0",
+          LIST_ROOT_VERTICIES);
+      assertContains("Added edge 5 -> 0");
+      assertContains("Edge 5 -> 0 is already in the graph");
+      assertContains("[]");
+      assertContains("Removed edge 5 -> 0");
+      assertContains("Edge 5 -> 0 is not in the graph");
+      assertContains("[0]");
+    }
+
+    @Test
+    public void TY_05_add_vertex() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          ADD_VERTEX,
+          "2",
+          ADD_EDGE,
+          "-1",
+          "0",
+          ADD_VERTEX,
+          "x",
+          CHECK_REFLEXIVITY,
+          GRAPH_SEARCH_IBFS);
+      assertContains("Vertex 2 is already in the graph");
+      assertContains("Added edge -1 -> 0");
+      assertContains("Added vertex x");
+      assertContains("The graph is NOT reflexive");
+      assertContains("[-1, 0, 1, 2, 3, 4, 5]");
+    }
+
+    @Test
+    public void TY_05_apply_edges() throws Exception {
+      runCommands(OPEN_FILE, "a.txt", APPLY_EDGES, "a-changes.txt", CHECK_SYMMETRY);
+      assertContains("Applied 5 of 5 edge changes from a-changes.txt");
+      assertContains("The graph is symmetric");
+    }
+
+    @Test
+    public void TY_05_modified_graph() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          ADD_EDGE,
+          "5",
+          "0",
+          SAVE_SNAPSHOT,
+          OPEN_FILE,
+          "a.txt",
+          INFO,
+          LIST_ROOT_VERTICIES);
+      assertContains("Error: the graph of 'a.txt' has been changed, so no snapshot was saved");
+      assertContains("Graph cache: 0 hits, 2 misses, 0 evictions, 1 graphs");
+      assertContains("[0]");
+    }
+
+    @Test
+    public void TY_06_transitive_edits() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          ADD_EDGE,
+          "0",
+          "3",
+          ADD_EDGE,
+          "0",
+          "4",
+          CHECK_TRANSITIVITY,
+          ADD_EDGE,
+          "0",
+          "5",
+          CHECK_TRANSITIVITY,
+          REMOVE_EDGE,
+          "1",
+          "5",
+          CHECK_TRANSITIVITY,
+          CHECK_EQUIVALENCE);
+      // Each check is printed straight after the edit before it, on the next prompt
+      assertContains(
+          String.join(
+              NEW_LINE + "graph-calculator> ",
+              "Added edge 0 -> 4",
+              "The graph is NOT transitive",
+              "Added edge 0 -> 5",
+              "The graph is transitive",
+              "Removed edge 1 -> 5",
+              "The graph is transitive",
+              "The graph is NOT an equivalence relation"));
+    }
+
+    @Test
+    public void TY_07_reachable() throws Exception {
+      runCommands(
+          OPEN_FILE, "a.txt", REACHABLE, "0", "5", REACHABLE, "5", "0", REACHABLE, "0", "0");
+      assertContains("Built a reachability index of 6 components");
+      assertContains("0 can reach 5");
+      assertContains("5 can NOT reach 0");
+      assertContains("0 can NOT reach 0");
+    }
+
+    @Test
+    public void TY_07_reachable_after_edit() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          REACHABLE,
+          "5",
+          "0",
+          ADD_EDGE,
+          "5",
+          "0",
+          REACHABLE,
+          "5",
+          "0",
+          REACHABLE,
+          "0",
+          "0",
+          REACHABLE,
+          "0",
+          "9");
+      assertContains("5 can NOT reach 0");
+      assertContains("Built a reachability index of 4 components");
+      assertContains("5 can reach 0");
+      assertContains("0 can reach 0");
+      assertContains("Vertex 9 is not in the graph");
+    }
+
+    /**
+     * Runs the lines of a script as a batch, and records them for the test report like {@link
+     * #runCommands} does.
+     *
+     * @param lines the lines of the script
+     * @return the exit status of the batch
+     */
+    private int runBatch(final String... lines) {
+      inputs.add(lines);
+      return new Main(new Scanner(String.join(NEW_LINE, lines))).runBatch();
+    }
+
+    @Test
+    public void TY_08_batch_skips_comments() throws Exception {
+      Assert.assertEquals(
+          0,
+          runBatch(
+              "# roots of a",
+              "",
+              "OPEN_FILE a.txt",
+              "   # indented comment",
+              "LIST_ROOT_VERTICIES"));
+      assertContains("Successfully opened graph from file a.txt");
+      assertContains("[0]");
+      assertDoesNotContain("Command not found");
+      assertDoesNotContain("graph-calculator>");
+    }
+
+    @Test
+    public void TY_08_batch_stops_at_exit() throws Exception {
+      Assert.assertEquals(
+          0, runBatch("OPEN_FILE a.txt", "EXIT", "CHECK_REFLEXIVITY", "OPEN_FILE z.txt"));
+      assertContains("You closed the terminal. Goodbye.");
+      assertDoesNotContain("reflexive");
+      assertDoesNotContain("z.txt");
+    }
+
+    @Test
+    public void TY_08_batch_status() throws Exception {
+      Assert.assertEquals(1, runBatch("OPEN_FILE z.txt", "OPEN_FILE a.txt", "CHECK_REFLEXIVITY"));
+      // The batch carries on after a failed command
+      assertContains("The graph is NOT reflexive");
+      Assert.assertEquals(1, runBatch("OPEN_FILE a.txt", "NOT_A_COMMAND"));
+    }
+
+    @Test
+    public void TY_08_batch_special_characters() throws Exception {
+      Assert.assertEquals(1, runBatch("OPEN_FILE a$1\\2.txt", "OPEN_FILE a.txt"));
+      assertContains("Error: file 'a$1\\2.txt' not found");
+      assertContains("Successfully opened graph from file a.txt");
+    }
   }
 }
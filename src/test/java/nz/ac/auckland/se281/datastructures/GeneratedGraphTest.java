@@ -0,0 +1,128 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import nz.ac.auckland.se281.DotReader;
+import nz.ac.auckland.se281.GraphGenerator;
+import nz.ac.auckland.se281.GraphGenerator.Family;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks {@link Graph} on generated graphs of every family that are large enough for the work to
+ * be split. The parallel parts are checked against the sequential ones, on a pool of their own so
+ * the tasks are split even on a machine with a single core.
+ */
+public class GeneratedGraphTest {
+  // Large enough that every family has more work than the parallel thresholds
+  private static final int SIZE = 50_000;
+  private static final int DEGREE = 8;
+  private static final long SEED = 281;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+  private static final ForkJoinPool SINGLE = new ForkJoinPool(1);
+
+  @AfterClass
+  public static void shutDown() {
+    POOL.shutdown();
+    SINGLE.shutdown();
+  }
+
+  /**
+   * Generates a graph that runs its parallel work on the given pool.
+   *
+   * @param family the family of graph
+   * @param pool the pool to run the tasks on
+   * @return the graph
+   */
+  private static Graph<String> generate(Family family, ForkJoinPool pool) {
+    Graph<String> graph = new GraphGenerator(family, SIZE, DEGREE, SEED).graph();
+    graph.usePool(pool);
+    return graph;
+  }
+
+  @Test
+  public void parallelPropertyChecks() {
+    for (Family family : Family.values()) {
+      Graph<String> parallel = generate(family, POOL);
+      Graph<String> sequential = generate(family, SINGLE);
+      Assert.assertTrue(
+          family.name(), new PropertyChecker(parallel.getAdjacency(), POOL).isParallel());
+      Assert.assertFalse(
+          family.name(), new PropertyChecker(sequential.getAdjacency(), SINGLE).isParallel());
+
+      // Equivalence first, so the three properties it needs are checked at the same time
+      Assert.assertEquals(family.name(), sequential.isEquivalence(), parallel.isEquivalence());
+      Assert.assertEquals(family.name(), sequential.isReflexive(), parallel.isReflexive());
+      Assert.assertEquals(family.name(), sequential.isSymmetric(), parallel.isSymmetric());
+      Assert.assertEquals(family.name(), sequential.isTransitive(), parallel.isTransitive());
+      Assert.assertEquals(family.name(), sequential.isAntiSymmetric(), parallel.isAntiSymmetric());
+
+      // Each property again on its own, without the results of the combined check
+      parallel.clearCachedResults();
+      Assert.assertEquals(family.name(), sequential.isTransitive(), parallel.isTransitive());
+      Assert.assertEquals(family.name(), sequential.isSymmetric(), parallel.isSymmetric());
+      Assert.assertEquals(family.name(), sequential.isReflexive(), parallel.isReflexive());
+      Assert.assertEquals(family.name(), sequential.getRoots(), parallel.getRoots());
+    }
+  }
+
+  @Test
+  public void parallelBreadthFirstSearch() {
+    for (Family family : Family.values()) {
+      Graph<String> graph = generate(family, POOL);
+      // The parallel search must visit the verticies in exactly the order of the sequential one
+      Assert.assertEquals(
+          family.name(), graph.iterativeBreadthFirstSearch(), graph.parallelBreadthFirstSearch());
+    }
+  }
+
+  @Test
+  public void familyProperties() {
+    Graph<String> cliques = generate(Family.CLIQUES, POOL);
+    Assert.assertTrue(cliques.isEquivalence());
+    Assert.assertEquals(SIZE / DEGREE, cliques.getRoots().size());
+
+    Graph<String> chain = generate(Family.CHAIN, POOL);
+    Assert.assertEquals(SIZE - 1, chain.getEdgeCount());
+    Assert.assertTrue(chain.isAntiSymmetric());
+    Assert.assertFalse(chain.isTransitive());
+
+    Graph<String> dag = generate(Family.DAG, POOL);
+    Assert.assertTrue(dag.isAntiSymmetric());
+    Assert.assertFalse(dag.isReflexive());
+
+    Graph<String> nearTransitive = generate(Family.NEAR_TRANSITIVE, POOL);
+    Assert.assertTrue(nearTransitive.isAntiSymmetric());
+    Assert.assertFalse(nearTransitive.isTransitive());
+  }
+
+  @Test
+  public void sameSeedSameGraph() {
+    for (Family family : Family.values()) {
+      GraphAssert.assertSameGraph(family.name(), generate(family, POOL), generate(family, POOL));
+    }
+  }
+
+  @Test
+  public void dotFileLoadsAsGraph() throws Exception {
+    final Path directory = Files.createTempDirectory("generated");
+    try {
+      for (Family family : Family.values()) {
+        // The file is what the benchmarks load, so it must be the same graph the generator built
+        final Path file = directory.resolve(family.name() + ".txt");
+        try {
+          final GraphGenerator generator = new GraphGenerator(family, SIZE, DEGREE, SEED);
+          generator.writeDot(file);
+          GraphAssert.assertSameGraph(family.name(), generator.graph(), DotReader.read(file));
+        } finally {
+          Files.deleteIfExists(file);
+        }
+      }
+    } finally {
+      Files.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+
+/** Assertions shared by the tests that compare a graph with one built or loaded another way. */
+public final class GraphAssert {
+
+  private GraphAssert() {}
+
+  /**
+   * Lists the verticies of a graph in order, followed by its edges in order as "SOURCE ->
+   * DESTINATION".
+   *
+   * @param graph the graph
+   * @return the verticies and edges
+   */
+  public static List<String> contentsOf(Graph<String> graph) {
+    final List<String> contents = new ArrayList<>(graph.getVertexCount() + graph.getEdgeCount());
+    graph.forEachVertex(contents::add);
+    graph.forEachEdge((source, destination) -> contents.add(source + " -> " + destination));
+    return contents;
+  }
+
+  /**
+   * Checks that two graphs have the same verticies and edges, in the same order.
+   *
+   * @param message the message of a failed check
+   * @param expected the graph that is known to be right
+   * @param actual the graph to check
+   */
+  public static void assertSameGraph(String message, Graph<String> expected, Graph<String> actual) {
+    Assert.assertNotNull(message, actual);
+    Assert.assertEquals(message, expected.getVertexCount(), actual.getVertexCount());
+    Assert.assertEquals(message, expected.getEdgeCount(), actual.getEdgeCount());
+    Assert.assertEquals(message, contentsOf(expected), contentsOf(actual));
+  }
+}
@@ -0,0 +1,161 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks a graph that is changed one edit at a time against a graph built from scratch with the
+ * same verticies and edges, after every edit. The changed graph keeps its properties up to date
+ * from the property counts, so every property is compared, along with the results that depend on
+ * the renumbered verticies.
+ */
+public class GraphEditTest {
+  private static final int ROUNDS = 200;
+  private static final int EDITS = 60;
+
+  private final Random random = new Random(281);
+
+  // The verticies and edges the changed graph should have
+  private Set<String> verticies;
+  private Set<Edge<String>> edges;
+
+  /**
+   * Picks a vertex id from a small range, so edits often hit verticies and edges that are already
+   * in the graph. Some ids are not numbers, so they are sorted after the numbers.
+   *
+   * @param range the number of different ids of each kind
+   * @return the id
+   */
+  private String vertex(int range) {
+    int id = random.nextInt(range);
+    return random.nextInt(5) == 0 ? "v" + id : String.valueOf(id);
+  }
+
+  @Test
+  public void editsMatchFreshGraph() {
+    for (int round = 0; round < ROUNDS; round++) {
+      // Small graphs have self loops and cycles often enough to make every property hold
+      int range = 1 + random.nextInt(random.nextBoolean() ? 6 : 30);
+      verticies = new TreeSet<>();
+      edges = new HashSet<>();
+      for (int i = random.nextInt(2 * range + 1); i > 0; i--) {
+        addEdge(vertex(range), vertex(range));
+      }
+      Graph<String> graph = new Graph<>(new LinkedHashSet<>(verticies), new LinkedHashSet<>(edges));
+
+      for (int edit = 0; edit < EDITS; edit++) {
+        if (random.nextInt(3) == 0) {
+          // Ask for the properties now and then, so the cached results are kept up to date too
+          graph.isEquivalence();
+          graph.isAntiSymmetric();
+        }
+        String message = "round " + round + " edit " + edit;
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+          String vertex = vertex(range);
+          Assert.assertEquals(message, verticies.add(vertex), graph.addVertex(vertex));
+        } else if (kind < 5) {
+          String source = vertex(range);
+          // A self loop a fifth of the time, so the graph can become reflexive
+          String destination = random.nextInt(5) == 0 ? source : vertex(range);
+          Assert.assertEquals(
+              message, addEdge(source, destination), graph.addEdge(source, destination));
+        } else if (kind < 9) {
+          Edge<String> edge = pickEdge(range);
+          Assert.assertEquals(
+              message,
+              edges.remove(edge),
+              graph.removeEdge(edge.getSource(), edge.getDestination()));
+        } else {
+          applyEdges(graph, range, message);
+        }
+        compare(graph, message);
+      }
+    }
+  }
+
+  /**
+   * Adds an edge and its verticies to the expected graph.
+   *
+   * @param source the source vertex
+   * @param destination the destination vertex
+   * @return true if the edge was not already expected
+   */
+  private boolean addEdge(String source, String destination) {
+    verticies.add(source);
+    verticies.add(destination);
+    return edges.add(new Edge<>(source, destination));
+  }
+
+  /**
+   * Picks an edge to remove, which is in the graph half of the time.
+   *
+   * @param range the number of different ids of each kind
+   * @return the edge
+   */
+  private Edge<String> pickEdge(int range) {
+    if (!edges.isEmpty() && random.nextBoolean()) {
+      return new ArrayList<>(edges).get(random.nextInt(edges.size()));
+    }
+    return new Edge<>(vertex(range), vertex(range));
+  }
+
+  /**
+   * Applies a batch of edge changes, which is either small enough to be applied one edge at a time
+   * or large enough to rebuild the graph.
+   *
+   * @param graph the graph to change
+   * @param range the number of different ids of each kind
+   * @param message the message of a failed check
+   */
+  private void applyEdges(Graph<String> graph, int range, String message) {
+    Set<Edge<String>> added = new LinkedHashSet<>();
+    Set<Edge<String>> removed = new LinkedHashSet<>();
+    for (int i = random.nextInt(2 * range + 1); i > 0; i--) {
+      if (random.nextBoolean()) {
+        added.add(new Edge<>(vertex(range), vertex(range)));
+      } else {
+        removed.add(pickEdge(range));
+      }
+    }
+
+    // The removals are applied first, then the additions
+    int changed = 0;
+    for (Edge<String> edge : removed) {
+      if (edges.remove(edge)) {
+        changed++;
+      }
+    }
+    Set<Edge<String>> before = new HashSet<>(edges);
+    for (Edge<String> edge : added) {
+      addEdge(edge.getSource(), edge.getDestination());
+    }
+    changed += edges.size() - before.size();
+    Assert.assertEquals(message, changed, graph.applyEdges(added, removed));
+  }
+
+  /**
+   * Compares the changed graph with a graph built from scratch.
+   *
+   * @param graph the changed graph
+   * @param message the message of a failed check
+   */
+  private void compare(Graph<String> graph, String message) {
+    Graph<String> fresh = new Graph<>(new LinkedHashSet<>(verticies), new LinkedHashSet<>(edges));
+    GraphAssert.assertSameGraph(message, fresh, graph);
+    Assert.assertEquals(message, fresh.isReflexive(), graph.isReflexive());
+    Assert.assertEquals(message, fresh.isSymmetric(), graph.isSymmetric());
+    Assert.assertEquals(message, fresh.isTransitive(), graph.isTransitive());
+    Assert.assertEquals(message, fresh.isAntiSymmetric(), graph.isAntiSymmetric());
+    Assert.assertEquals(message, fresh.isEquivalence(), graph.isEquivalence());
+    Assert.assertEquals(message, fresh.getRoots(), graph.getRoots());
+    Assert.assertEquals(
+        message, fresh.iterativeBreadthFirstSearch(), graph.iterativeBreadthFirstSearch());
+  }
+}
@@ -0,0 +1,121 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a damaged snapshot is never used, so the DOT file is read instead. Every byte of a
+ * small snapshot is corrupted in turn, and the snapshot is cut short at every length.
+ */
+public class GraphSnapshotTest {
+  private Path directory;
+  private Path file;
+  private Graph<String> graph;
+  private byte[] saved;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("snapshot");
+    file = directory.resolve("graph.txt");
+    // The snapshot only records the size and time of the DOT file, not what is in it
+    Files.writeString(file, "digraph {}");
+
+    final Random random = new Random(281);
+    final Set<String> verticies = new LinkedHashSet<>();
+    final Set<Edge<String>> edges = new LinkedHashSet<>();
+    for (int vertex = 0; vertex < 40; vertex++) {
+      verticies.add(vertex % 4 == 0 ? "v" + vertex : String.valueOf(vertex));
+    }
+    final List<String> ids = new ArrayList<>(verticies);
+    for (int edge = 0; edge < 120; edge++) {
+      edges.add(new Edge<>(ids.get(random.nextInt(40)), ids.get(random.nextInt(40))));
+    }
+    graph = new Graph<>(verticies, edges);
+    // Save the reachability index too, so its part of the snapshot is damaged as well
+    Assert.assertNotNull(graph.getReachabilityIndex(Long.MAX_VALUE));
+    saved =
+        Files.readAllBytes(
+            GraphSnapshot.write(graph, file, Files.size(file), Files.getLastModifiedTime(file)));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(GraphSnapshot.pathOf(file));
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  /**
+   * Replaces the snapshot with the given bytes, keeping the DOT file's time so the header still
+   * matches it.
+   *
+   * @param bytes the bytes of the snapshot
+   */
+  private void overwrite(byte[] bytes) throws Exception {
+    final FileTime modified = Files.getLastModifiedTime(file);
+    Files.write(GraphSnapshot.pathOf(file), bytes);
+    Files.setLastModifiedTime(file, modified);
+  }
+
+  @Test
+  public void readsSavedSnapshot() throws Exception {
+    final Graph<String> read = GraphSnapshot.read(file);
+    GraphAssert.assertSameGraph("snapshot", graph, read);
+    // The saved index answers queries without being built again
+    Assert.assertTrue(read.hasReachabilityIndex());
+    final ReachabilityIndex<String> saved = graph.getReachabilityIndex(0);
+    final ReachabilityIndex<String> index = read.getReachabilityIndex(0);
+    read.forEachVertex(
+        source ->
+            read.forEachVertex(
+                destination ->
+                    Assert.assertEquals(
+                        source + " -> " + destination,
+                        saved.canReach(source, destination),
+                        index.canReach(source, destination))));
+  }
+
+  @Test
+  public void corruptedBytes() throws Exception {
+    for (int position = 0; position < saved.length; position++) {
+      for (final int value : new int[] {0x80, 0xFF, 0x7F}) {
+        final byte[] bytes = saved.clone();
+        if (bytes[position] == (byte) value) {
+          continue;
+        }
+        bytes[position] = (byte) value;
+        overwrite(bytes);
+        // Even a corrupted id or closure word that would still make a valid graph is caught
+        Assert.assertNull("byte " + position, GraphSnapshot.read(file));
+      }
+    }
+  }
+
+  @Test
+  public void staleSize() throws Exception {
+    // The file was one byte longer when the graph was loaded than it is now
+    GraphSnapshot.write(graph, file, Files.size(file) + 1, Files.getLastModifiedTime(file));
+    Assert.assertNull(GraphSnapshot.read(file));
+  }
+
+  @Test
+  public void truncated() throws Exception {
+    for (int length = 0; length < saved.length; length++) {
+      final byte[] bytes = new byte[length];
+      System.arraycopy(saved, 0, bytes, 0, length);
+      overwrite(bytes);
+      // The closure is the end of the file, so every cut removes part of it
+      Assert.assertNull(GraphSnapshot.read(file));
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package nz.ac.auckland.se281.datastructures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks {@link RingBuffer} and the {@link Queue} and {@link Stack} built on it. The elements wrap
+ * around the end of the array after some are removed from the front, and the array grows while it
+ * is wrapped.
+ */
+public class RingBufferTest {
+
+  @Test
+  public void emptyBuffer() {
+    RingBuffer<String> buffer = new RingBuffer<>();
+    Assert.assertTrue(buffer.isEmpty());
+    Assert.assertEquals(0, buffer.size());
+    Assert.assertNull(buffer.fetch(0));
+    Assert.assertNull(buffer.removeHead());
+  }
+
+  @Test
+  public void fetchBounds() {
+    RingBuffer<Integer> buffer = new RingBuffer<>();
+    for (int i = 0; i < 3; i++) {
+      buffer.append(i);
+    }
+    Assert.assertNull(buffer.fetch(-1));
+    Assert.assertEquals(Integer.valueOf(0), buffer.fetch(0));
+    Assert.assertEquals(Integer.valueOf(2), buffer.fetch(2));
+    Assert.assertNull(buffer.fetch(3));
+    // A slot that was used before is out of bounds once its element is removed
+    buffer.removeHead();
+    Assert.assertNull(buffer.fetch(2));
+  }
+
+  @Test
+  public void wrapsAround() {
+    RingBuffer<Integer> buffer = new RingBuffer<>();
+    // Move the front along so the later elements are stored past the end of the array
+    for (int i = 0; i < 10; i++) {
+      buffer.append(i);
+    }
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(Integer.valueOf(i), buffer.removeHead());
+    }
+    for (int i = 0; i < 16; i++) {
+      buffer.append(i);
+    }
+    Assert.assertEquals(16, buffer.size());
+    for (int i = 0; i < 16; i++) {
+      Assert.assertEquals(Integer.valueOf(i), buffer.fetch(i));
+    }
+  }
+
+  @Test
+  public void prependWrapsBehindTheFront() {
+    RingBuffer<Integer> buffer = new RingBuffer<>();
+    buffer.append(1);
+    buffer.prepend(0);
+    buffer.prepend(-1);
+    Assert.assertEquals(Integer.valueOf(-1), buffer.fetch(0));
+    Assert.assertEquals(Integer.valueOf(0), buffer.fetch(1));
+    Assert.assertEquals(Integer.valueOf(1), buffer.fetch(2));
+  }
+
+  @Test
+  public void growsWhileWrapped() {
+    RingBuffer<Integer> buffer = new RingBuffer<>();
+    for (int i = 0; i < 12; i++) {
+      buffer.append(i);
+    }
+    for (int i = 0; i < 12; i++) {
+      buffer.removeHead();
+    }
+    // The front is now near the end of the array, so filling it past its capacity grows it while
+    // the elements wrap around, and both halves must keep their order
+    for (int i = 0; i < 100; i++) {
+      buffer.append(i);
+    }
+    for (int i = 1; i <= 5; i++) {
+      buffer.prepend(-i);
+    }
+    Assert.assertEquals(105, buffer.size());
+    for (int i = 0; i < 105; i++) {
+      Assert.assertEquals(Integer.valueOf(i - 5), buffer.fetch(i));
+    }
+    for (int i = -5; i < 100; i++) {
+      Assert.assertEquals(Integer.valueOf(i), buffer.removeHead());
+    }
+    Assert.assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void queueIsFirstInFirstOut() {
+    Queue<String> queue = new Queue<>();
+    for (int i = 0; i < 40; i++) {
+      queue.enqueue("v" + i);
+      // Remove one for every two added, so the queue wraps and grows as it goes
+      if (i % 2 == 1) {
+        Assert.assertEquals("v" + i / 2, queue.dequeue());
+      }
+    }
+    for (int i = 20; i < 40; i++) {
+      Assert.assertEquals("v" + i, queue.dequeue());
+    }
+    Assert.assertNull(queue.dequeue());
+  }
+
+  @Test
+  public void stackIsLastInFirstOut() {
+    Stack<String> stack = new Stack<>();
+    for (int i = 0; i < 40; i++) {
+      stack.push("v" + i);
+    }
+    for (int i = 39; i >= 0; i--) {
+      Assert.assertEquals("v" + i, stack.pop());
+    }
+    Assert.assertNull(stack.pop());
+    Assert.assertTrue(stack.isEmpty());
+  }
+}